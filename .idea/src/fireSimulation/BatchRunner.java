@@ -0,0 +1,238 @@
+package fireSimulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless command-line entry point for running many simulation replicas without JavaFX.
+ * Usage: BatchRunner [--replicas=N] [--seed=S] [--timeout=TICKS]
+ *                    [--out=results.csv|results.json] config1.txt [config2.txt ...]
+ * A replica is contained once no yellow (NEAR_FIRE) sensor is left, so nothing more can ignite.
+ * Every replica is a CompactSimulation on its own copy of the network, seeded with --seed plus
+ * the replica's index, with its own clone admission policy timed by its own ticks. Replicas
+ * share no state, so a batch gives the same results on any number of cores.
+ */
+public class BatchRunner {
+    private static final int DEFAULT_REPLICAS = 10;
+    private static final long DEFAULT_SEED = 1;
+    private static final int DEFAULT_TIMEOUT_TICKS = 600;
+
+    private int replicas = DEFAULT_REPLICAS;
+    private long baseSeed = DEFAULT_SEED;
+    private int timeoutTicks = DEFAULT_TIMEOUT_TICKS;
+    private String outputFile = "results.csv";
+    private final List<String> configFiles = new ArrayList<>();
+
+    /**
+     * Runs the batch described by the command-line arguments.
+     * @param args Options followed by one or more configuration file paths.
+     */
+    public static void main(String[] args) {
+        CommandLine.run(args, "BatchRunner [--replicas=N] [--seed=S] [--timeout=TICKS] "
+                + "[--out=results.csv|results.json] config.txt ...", "Batch run failed", arguments -> {
+            BatchRunner runner = new BatchRunner();
+            runner.parseArguments(arguments);
+            runner.run();
+        });
+    }
+
+    /**
+     * Parses options and configuration paths.
+     * @param args The command-line arguments.
+     */
+    private void parseArguments(String[] args) {
+        CommandLine line = CommandLine.parse(args, "replicas", "seed", "timeout", "out");
+        replicas = line.getInt("replicas", replicas);
+        baseSeed = line.getLong("seed", baseSeed);
+        timeoutTicks = line.getInt("timeout", timeoutTicks);
+        outputFile = line.get("out", outputFile);
+        configFiles.addAll(line.getFiles());
+        if (configFiles.isEmpty()) {
+            throw new IllegalArgumentException("No configuration file given.");
+        }
+        if (replicas < 1 || timeoutTicks < 1) {
+            throw new IllegalArgumentException("Replicas and timeout must be positive.");
+        }
+    }
+
+    /**
+     * Runs every replica of every configuration across all cores and writes the summary.
+     * @throws Exception If a configuration cannot be loaded or the output cannot be written.
+     */
+    private void run() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Summary> summaries = new ArrayList<>();
+        try {
+            List<List<Future<ReplicaResult>>> pending = new ArrayList<>();
+            for (String config : configFiles) {
+                CompactGraph network = CompactGraph.load(config);
+                List<Future<ReplicaResult>> futures = new ArrayList<>();
+                for (int i = 0; i < replicas; i++) {
+                    long seed = baseSeed + i;
+                    futures.add(pool.submit(() -> runReplica(network, seed)));
+                }
+                pending.add(futures);
+            }
+            for (int c = 0; c < configFiles.size(); c++) {
+                Summary summary = new Summary(configFiles.get(c));
+                for (Future<ReplicaResult> future : pending.get(c)) {
+                    try {
+                        summary.add(future.get());
+                    } catch (ExecutionException e) {
+                        throw new IOException("Replica of " + configFiles.get(c) + " failed: "
+                                + e.getCause().getMessage(), e.getCause());
+                    }
+                }
+                summaries.add(summary);
+                System.out.println(summary.config + ": " + summary.count + " replicas, mean burned "
+                        + format(summary.burned.mean()) + ", contained " + summary.containedCount);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        writeResults(summaries);
+    }
+
+    /**
+     * Runs one replica until the fire has no yellow frontier left, or until the timeout.
+     * @param network The loaded network; the replica runs on its own copy.
+     * @param seed The replica's seed.
+     * @return The replica's statistics.
+     */
+    private ReplicaResult runReplica(CompactGraph network, long seed) {
+        CompactSimulation simulation = new CompactSimulation(network.copy(), seed);
+        CloneAdmission admission = CloneAdmission.fromSystemProperties(simulation.simulatedClock());
+        if (admission.isLimited()) {
+            simulation.setCloneAdmission(admission);
+        }
+
+        CompactGraph graph = simulation.getGraph();
+        boolean contained = false;
+        while (!contained && simulation.getTick() < timeoutTicks) {
+            simulation.tick();
+            // A tick turns every neighbor of a node that ignited yellow before it returns,
+            // so an empty frontier after a tick means the fire has nowhere left to go.
+            contained = graph.getStateCount(CompactGraph.NEAR_FIRE) == 0;
+        }
+        return new ReplicaResult(graph.getStateCount(CompactGraph.ON_FIRE), simulation.getAgentsSpawned(),
+                simulation.getTick(), contained);
+    }
+
+    /**
+     * Writes the summaries as JSON if the output path ends in .json, otherwise as CSV.
+     * @param summaries One summary per configuration file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeResults(List<Summary> summaries) throws IOException {
+        boolean json = outputFile.toLowerCase(Locale.ROOT).endsWith(".json");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8))) {
+            if (json) {
+                out.println("[");
+                for (int i = 0; i < summaries.size(); i++) {
+                    Summary s = summaries.get(i);
+                    out.print("  {\"config\": \"" + s.config.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+                            + ", \"replicas\": " + s.count
+                            + ", \"burnedSensors\": " + s.burned.toJson()
+                            + ", \"agentsSpawned\": " + s.agents.toJson()
+                            + ", \"containmentTicks\": " + s.containment.toJson()
+                            + ", \"contained\": " + s.containedCount + "}");
+                    out.println(i < summaries.size() - 1 ? "," : "");
+                }
+                out.println("]");
+            } else {
+                out.println("config,replicas,burned_mean,burned_min,burned_max,agents_mean,agents_min,agents_max,"
+                        + "containment_ticks_mean,containment_ticks_min,containment_ticks_max,contained");
+                for (Summary s : summaries) {
+                    out.println("\"" + s.config.replace("\"", "\"\"") + "\"," + s.count + ","
+                            + s.burned.toCsv() + "," + s.agents.toCsv() + "," + s.containment.toCsv() + ","
+                            + s.containedCount);
+                }
+            }
+        }
+        System.out.println("Results written to " + outputFile);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Statistics gathered from one replica.
+     */
+    private static class ReplicaResult {
+        private final long burnedSensors;
+        private final long agentsSpawned;
+        private final long containmentTicks;
+        private final boolean contained;
+
+        ReplicaResult(long burnedSensors, long agentsSpawned, long containmentTicks, boolean contained) {
+            this.burnedSensors = burnedSensors;
+            this.agentsSpawned = agentsSpawned;
+            this.containmentTicks = containmentTicks;
+            this.contained = contained;
+        }
+    }
+
+    /**
+     * Aggregates replica results for one configuration.
+     */
+    private static class Summary {
+        private final String config;
+        private final Aggregate burned = new Aggregate();
+        private final Aggregate agents = new Aggregate();
+        private final Aggregate containment = new Aggregate();
+        private int count = 0;
+        private int containedCount = 0;
+
+        Summary(String config) {
+            this.config = config;
+        }
+
+        void add(ReplicaResult result) {
+            count++;
+            burned.add(result.burnedSensors);
+            agents.add(result.agentsSpawned);
+            containment.add(result.containmentTicks);
+            if (result.contained) containedCount++;
+        }
+    }
+
+    /**
+     * Running mean, minimum and maximum of a series of values.
+     */
+    private static class Aggregate {
+        private long count = 0;
+        private double sum = 0;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        void add(long value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        double mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        String toCsv() {
+            return format(mean()) + "," + min + "," + max;
+        }
+
+        String toJson() {
+            return "{\"mean\": " + format(mean()) + ", \"min\": " + min + ", \"max\": " + max + "}";
+        }
+    }
+}
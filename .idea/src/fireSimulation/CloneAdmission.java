@@ -0,0 +1,285 @@
+package fireSimulation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for agent clones, so a large fire front cannot grow the agent
+ * population without bound. Three independent limits can be combined:
+ * <ul>
+ *     <li>a global cap on the number of live clones,</li>
+ *     <li>a cap on live clones per square region of the grid, and</li>
+ *     <li>a token bucket limiting the clone rate.</li>
+ * </ul>
+ * A clone that is refused is counted per reason and logged, and refusals are reported as a
+ * warning at most once per {@link #REPORT_INTERVAL_NANOS}, so monitoring degrades visibly
+ * instead of silently. All methods are thread-safe.
+ * The shared policy is configured from the system properties {@code fireSimulation.agents.max},
+ * {@code fireSimulation.agents.regionSize}, {@code fireSimulation.agents.maxPerRegion},
+ * {@code fireSimulation.clones.rate} (clones per second) and {@code fireSimulation.clones.burst};
+ * a limit that is unset or zero does not apply.
+ */
+public class CloneAdmission {
+    /** Region key of clones whose location is not known; only the global cap and rate apply. */
+    public static final long NO_REGION = Long.MIN_VALUE;
+    /** Minimum time between two refusal warnings. */
+    public static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Outcome of an admission request.
+     */
+    public enum Verdict {
+        ADMITTED,
+        GLOBAL_CAP,
+        REGION_CAP,
+        RATE_LIMITED
+    }
+
+    private static final CloneAdmission shared = fromSystemProperties(System::nanoTime);
+
+    private final int maxAgents;
+    private final int regionSize;
+    private final int maxPerRegion;
+    private final double clonesPerNano;
+    private final double burst;
+    private final LongSupplier clock;
+    private final AtomicInteger liveClones = new AtomicInteger();
+    private final Map<Long, AtomicInteger> regionCounts = new ConcurrentHashMap<>();
+    private final LongAdder[] rejected = new LongAdder[Verdict.values().length];
+    private final AtomicLong lastReport = new AtomicLong(Long.MIN_VALUE);
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructs a policy timed by the system clock.
+     * @param maxAgents Maximum live clones, or 0 for no global cap.
+     * @param regionSize Side of a square region in grid units, or 0 for no regions.
+     * @param maxPerRegion Maximum live clones per region, or 0 for no regional cap.
+     * @param clonesPerSecond Sustained clone rate, or 0 for no rate limit.
+     * @param burst Clones that may be created at once after an idle period.
+     */
+    public CloneAdmission(int maxAgents, int regionSize, int maxPerRegion, double clonesPerSecond, int burst) {
+        this(maxAgents, regionSize, maxPerRegion, clonesPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Constructs a policy with its own clock, e.g. simulated time for reproducible runs.
+     * @param maxAgents Maximum live clones, or 0 for no global cap.
+     * @param regionSize Side of a square region in grid units, or 0 for no regions.
+     * @param maxPerRegion Maximum live clones per region, or 0 for no regional cap.
+     * @param clonesPerSecond Sustained clone rate, or 0 for no rate limit.
+     * @param burst Clones that may be created at once after an idle period.
+     * @param clockNanos Supplies the current time in nanoseconds.
+     */
+    public CloneAdmission(int maxAgents, int regionSize, int maxPerRegion, double clonesPerSecond, int burst,
+                          LongSupplier clockNanos) {
+        this.maxAgents = maxAgents;
+        this.regionSize = regionSize;
+        this.maxPerRegion = regionSize > 0 ? maxPerRegion : 0;
+        this.clonesPerNano = clonesPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.clock = clockNanos;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+        this.tokens = this.burst;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Gets the policy shared by the object-model agents, configured from system properties.
+     * @return The shared policy.
+     */
+    public static CloneAdmission shared() {
+        return shared;
+    }
+
+    /**
+     * Creates a new policy with the limits configured by system properties, e.g. one per
+     * replica of a batch run so replicas do not share a budget.
+     * @param clockNanos Supplies the current time in nanoseconds.
+     * @return The new policy.
+     */
+    public static CloneAdmission fromSystemProperties(LongSupplier clockNanos) {
+        return new CloneAdmission(
+                Integer.getInteger("fireSimulation.agents.max", 0),
+                Integer.getInteger("fireSimulation.agents.regionSize", 0),
+                Integer.getInteger("fireSimulation.agents.maxPerRegion", 0),
+                Double.parseDouble(System.getProperty("fireSimulation.clones.rate", "0")),
+                Integer.getInteger("fireSimulation.clones.burst", 1),
+                clockNanos);
+    }
+
+    /**
+     * Checks whether any limit is configured.
+     * @return true if some clones may be refused.
+     */
+    public boolean isLimited() {
+        return maxAgents > 0 || maxPerRegion > 0 || clonesPerNano > 0;
+    }
+
+    /**
+     * Computes the region key of a grid location.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The key to pass to {@link #tryAdmit(long)}, or {@link #NO_REGION} if regions are off.
+     */
+    public long regionOf(int x, int y) {
+        if (maxPerRegion <= 0) return NO_REGION;
+        return CompactGraph.pack(Math.floorDiv(x, regionSize), Math.floorDiv(y, regionSize));
+    }
+
+    /**
+     * Requests admission for one clone. An admitted clone holds its place in the budget
+     * until {@link #release(long)} is called for it.
+     * @param region The clone's region key, or {@link #NO_REGION}.
+     * @return The verdict; anything but ADMITTED has already been counted.
+     */
+    public Verdict tryAdmit(long region) {
+        Verdict verdict = reserve(region);
+        if (verdict != Verdict.ADMITTED) {
+            rejected[verdict.ordinal()].increment();
+        }
+        return verdict;
+    }
+
+    private Verdict reserve(long region) {
+        if (maxAgents > 0) {
+            int live;
+            do {
+                live = liveClones.get();
+                if (live >= maxAgents) return Verdict.GLOBAL_CAP;
+            } while (!liveClones.compareAndSet(live, live + 1));
+        } else {
+            liveClones.incrementAndGet();
+        }
+
+        AtomicInteger regionCount = null;
+        if (maxPerRegion > 0 && region != NO_REGION) {
+            regionCount = regionCounts.computeIfAbsent(region, key -> new AtomicInteger());
+            if (regionCount.incrementAndGet() > maxPerRegion) {
+                regionCount.decrementAndGet();
+                liveClones.decrementAndGet();
+                return Verdict.REGION_CAP;
+            }
+        }
+
+        if (clonesPerNano > 0 && !takeToken()) {
+            if (regionCount != null) regionCount.decrementAndGet();
+            liveClones.decrementAndGet();
+            return Verdict.RATE_LIMITED;
+        }
+        return Verdict.ADMITTED;
+    }
+
+    private synchronized boolean takeToken() {
+        long now = clock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * clonesPerNano);
+        lastRefill = now;
+        if (tokens < 1) return false;
+
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Returns a destroyed clone's place in the budget. A clone whose task ends after a
+     * {@link #reset()} has no place left to return, so the count never drops below zero.
+     * @param region The region the clone was last counted in.
+     */
+    public void release(long region) {
+        liveClones.updateAndGet(live -> Math.max(0, live - 1));
+        if (maxPerRegion > 0 && region != NO_REGION) {
+            AtomicInteger regionCount = regionCounts.get(region);
+            if (regionCount != null) regionCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counts an existing clone as live without checking any limit, e.g. after a restore.
+     * @param region The clone's region key, or {@link #NO_REGION}.
+     */
+    public void adopt(long region) {
+        liveClones.incrementAndGet();
+        if (maxPerRegion > 0 && region != NO_REGION) {
+            regionCounts.computeIfAbsent(region, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves a live clone's regional count after it walked.
+     * @param from The region it left.
+     * @param to The region it entered.
+     */
+    public void moved(long from, long to) {
+        if (maxPerRegion <= 0 || from == to) return;
+
+        if (from != NO_REGION) {
+            AtomicInteger regionCount = regionCounts.get(from);
+            if (regionCount != null) regionCount.decrementAndGet();
+        }
+        if (to != NO_REGION) {
+            regionCounts.computeIfAbsent(to, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Checks whether a refusal should be reported as a warning: the first one, and then
+     * at most one per {@link #REPORT_INTERVAL_NANOS}.
+     * @return true if the caller should report the refusal.
+     */
+    public boolean shouldReportRefusal() {
+        long now = clock.getAsLong();
+        long last = lastReport.get();
+        return (last == Long.MIN_VALUE || now - last >= REPORT_INTERVAL_NANOS)
+                && lastReport.compareAndSet(last, now);
+    }
+
+    /**
+     * Forgets every live clone and refills the token bucket, e.g. when the simulation resets.
+     * Rejection counts are kept.
+     */
+    public void reset() {
+        liveClones.set(0);
+        regionCounts.clear();
+        lastReport.set(Long.MIN_VALUE);
+        synchronized (this) {
+            tokens = burst;
+            lastRefill = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Gets the number of clones currently holding a place in the budget.
+     * @return The live clone count.
+     */
+    public int getLiveClones() {
+        return liveClones.get();
+    }
+
+    /**
+     * Gets the number of clones refused for one reason.
+     * @param reason The refusal reason.
+     * @return The count.
+     */
+    public long getRejected(Verdict reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of clones refused for any reason.
+     * @return The count.
+     */
+    public long getRejectedTotal() {
+        long total = 0;
+        for (LongAdder count : rejected) {
+            total += count.sum();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,166 @@
+package fireSimulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arguments of a command-line tool: {@code --name=value} options and plain file paths, in any
+ * order. Every tool of the core and benchmarks modules parses its arguments here and runs its
+ * {@code main} through {@link #run(String[], String, String, Tool)}, so bad arguments are
+ * reported the same way everywhere: the message and the usage line on stderr, exit status 2.
+ */
+public final class CommandLine {
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> files = new ArrayList<>();
+
+    private CommandLine() {
+    }
+
+    /**
+     * The body of a tool's {@code main}.
+     */
+    @FunctionalInterface
+    public interface Tool {
+        /**
+         * @param args The command-line arguments.
+         * @throws IllegalArgumentException If the arguments are invalid.
+         * @throws Exception If the tool fails.
+         */
+        void run(String[] args) throws Exception;
+    }
+
+    /**
+     * Runs a tool, reporting invalid arguments with its usage line (exit status 2) and any
+     * other failure with its message (exit status 1).
+     * @param args The command-line arguments.
+     * @param usage The usage line, without the "Usage: " prefix.
+     * @param failure What failed, e.g. "Batch run failed".
+     * @param tool The tool's body.
+     */
+    public static void run(String[] args, String usage, String failure, Tool tool) {
+        try {
+            tool.run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: " + usage);
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println(failure + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Splits arguments into options and files. A repeated option keeps its last value.
+     * @param args The command-line arguments.
+     * @param names The options the tool accepts, without the leading "--".
+     * @return The parsed arguments.
+     * @throws IllegalArgumentException If an option is unknown or has no value.
+     */
+    public static CommandLine parse(String[] args, String... names) {
+        Set<String> known = Set.of(names);
+        CommandLine line = new CommandLine();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                line.files.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Missing value for option " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            line.options.put(name, arg.substring(eq + 1));
+        }
+        return line;
+    }
+
+    public String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(name, value);
+        }
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(name, value);
+        }
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(name, value);
+        }
+    }
+
+    /**
+     * Gets a comma-separated list of whole numbers, e.g. {@code --threads=1,2,4}.
+     * @param name The option name.
+     * @param defaultValue Returned if the option is absent.
+     * @return The numbers in the order given.
+     */
+    public int[] getInts(String name, int[] defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        String[] parts = value.split(",");
+        int[] numbers = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                numbers[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw invalidNumber(name, value);
+        }
+        return numbers;
+    }
+
+    /**
+     * Gets the file arguments in the order given.
+     * @return The files; empty if there are none.
+     */
+    public List<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Gets the only file argument of a tool that takes exactly one.
+     * @param what What the file is, for the error message, e.g. "network file".
+     * @return The file.
+     * @throws IllegalArgumentException If there is no file or more than one.
+     */
+    public String getFile(String what) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No " + what + " given.");
+        }
+        if (files.size() > 1) {
+            throw new IllegalArgumentException("Only one " + what + " can be given.");
+        }
+        return files.get(0);
+    }
+
+    private static IllegalArgumentException invalidNumber(String name, String value) {
+        return new IllegalArgumentException("Invalid number for option --" + name + "=" + value);
+    }
+}
@@ -0,0 +1,991 @@
+package fireSimulation;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Compact struct-of-arrays representation of the sensor network for very large graphs.
+ * Nodes are plain indices: adjacency is stored CSR-style in two int arrays, the
+ * {@code SensorNode.State} of each node in a byte array and the occupying agent ID in an
+ * int array. Fire spread and agent steps run directly on these arrays without allocating.
+ * Node indices follow the sorted (x, y) order of the locations, so nearby rows of the
+ * configuration end up close together in memory.
+ * Occupancy is lock-free: agents claim a node with a compare-and-set on its occupant slot
+ * and release the node they left afterwards, so any number of threads may step agents
+ * concurrently. Fire spread is expected to run on a single thread.
+ * Fire spread is frontier-driven: only nodes that just ignited and yellow nodes whose
+ * ignition check is due are visited, the latter scheduled on a small timing wheel, so the
+ * cost of a tick scales with the fire perimeter rather than the size of the graph.
+ * Any number of fire starts is supported.
+ * Every node remembers the tick an agent last arrived on it, so that a {@link WalkPolicy#COVERAGE}
+ * walk can steer agents away from ground other agents covered recently.
+ * In a partitioned run each worker owns a range of node indices: fire only spreads onto
+ * owned nodes, and the other nodes mirror their owners' state (see {@link PartitionWorker}).
+ */
+public class CompactGraph {
+    /** Byte code of {@code SensorNode.State.NORMAL}. */
+    public static final byte NORMAL = 0;
+    /** Byte code of {@code SensorNode.State.NEAR_FIRE}. */
+    public static final byte NEAR_FIRE = 1;
+    /** Byte code of {@code SensorNode.State.ON_FIRE}. */
+    public static final byte ON_FIRE = 2;
+    /** Occupant value of a node that hosts no agent. */
+    public static final int NO_AGENT = -1;
+    /** Value returned for a location or index that does not exist. */
+    public static final int NO_NODE = -1;
+    /** Occupant of a node claimed for a clone that has no ID yet. */
+    private static final int CLAIMED = -2;
+    /** Ticks a yellow node must stay near fire before it may ignite. */
+    public static final int IGNITION_DELAY_TICKS = 3;
+    /** Chance that a yellow node ignites once its delay has elapsed. */
+    public static final double IGNITION_PROBABILITY = 0.3;
+    /** Slots in the ignition timing wheel; a power of two larger than the ignition delay. */
+    private static final int WHEEL_SIZE = Integer.highestOneBit(IGNITION_DELAY_TICKS) << 1;
+
+    /**
+     * How an agent picks among the free neighbors of the preferred color when it walks.
+     */
+    public enum WalkPolicy {
+        /** Uniformly at random. */
+        RANDOM,
+        /** The least recently visited one, ties broken at random, so agents spread out instead of retracing steps. */
+        COVERAGE
+    }
+
+    /**
+     * Receives every node state transition.
+     */
+    public interface StateListener {
+        /**
+         * Called after a node changed state.
+         * @param node The node index.
+         * @param oldState The previous state code.
+         * @param newState The new state code.
+         */
+        void stateChanged(int node, byte oldState, byte newState);
+    }
+
+    private static final VarHandle OCCUPANTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle VISITS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final long[] locations;
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final byte[] states;
+    private final int[] occupants;
+    private final int[] nearFireSince;
+    /** Tick of the last arrival on each node plus one, so that 0 means never visited. */
+    private final int[] lastVisited;
+    private final int station;
+    private final int[] fireStarts;
+    private final IntList newlyBurning = new IntList();
+    private final IntList[] ignitionWheel = new IntList[WHEEL_SIZE];
+    private final LongAdder[] stateCounts = { new LongAdder(), new LongAdder(), new LongAdder() };
+    private final LongAdder moveAttempts = new LongAdder();
+    private final LongAdder movesCompleted = new LongAdder();
+    private StateListener stateListener;
+    private IntConsumer changeFeed;
+    private WalkPolicy walkPolicy = WalkPolicy.RANDOM;
+    private int currentTick = 0;
+    private int ownedFrom = 0;
+    private int ownedTo;
+
+    /**
+     * Builds a graph from already resolved arrays.
+     * @param locations Packed (x, y) location of each node, sorted ascending.
+     * @param offsets CSR offsets; neighbors of node i are adjacency[offsets[i]..offsets[i + 1]).
+     * @param adjacency CSR neighbor indices.
+     * @param station Index of the base station, or {@link #NO_NODE}.
+     * @param fireStarts Indices of the nodes burning at the start.
+     */
+    CompactGraph(long[] locations, int[] offsets, int[] adjacency, int station, int[] fireStarts) {
+        this.locations = locations;
+        this.offsets = offsets;
+        this.adjacency = adjacency;
+        this.states = new byte[locations.length];
+        this.occupants = new int[locations.length];
+        this.nearFireSince = new int[locations.length];
+        this.lastVisited = new int[locations.length];
+        this.station = station;
+        this.fireStarts = fireStarts;
+        this.ownedTo = locations.length;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            ignitionWheel[i] = new IntList();
+        }
+        reset();
+    }
+
+    /**
+     * Loads a graph from the node/edge/station/fire text format read by
+     * {@code SimulationModel.loadConfiguration}.
+     * Only the first station line is used; every fire line starts a fire.
+     * The file is parsed in parallel; see {@link GraphLoader}.
+     * @param filePath Path to the configuration file.
+     * @return The loaded graph.
+     * @throws IOException If the file cannot be read or references an unknown node.
+     */
+    public static CompactGraph load(String filePath) throws IOException {
+        return GraphLoader.load(Paths.get(filePath), null);
+    }
+
+    /**
+     * Resolves packed locations into a CSR graph.
+     * @param nodes Packed node locations, in any order, duplicates allowed.
+     * @param edges Packed edge endpoints, two entries per edge.
+     * @param stationKey Packed base station location, or null.
+     * @param fireKeys Packed fire start locations.
+     * @return The built graph.
+     * @throws IOException If an edge, station or fire references an unknown node.
+     */
+    static CompactGraph build(LongBuffer nodes, LongBuffer edges, Long stationKey, LongBuffer fireKeys) throws IOException {
+        long[] sorted = Arrays.copyOf(nodes.values, nodes.size);
+        Arrays.parallelSort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        long[] locations = Arrays.copyOf(sorted, unique);
+
+        int edgeCount = edges.size / 2;
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        long[] edgeKeys = edges.values;
+        IntStream.range(0, edgeCount).parallel().forEach(e -> {
+            from[e] = Arrays.binarySearch(locations, edgeKeys[2 * e]);
+            to[e] = Arrays.binarySearch(locations, edgeKeys[2 * e + 1]);
+        });
+        int[] degree = new int[unique];
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] < 0) resolve(locations, edgeKeys[2 * e], "edge");
+            if (to[e] < 0) resolve(locations, edgeKeys[2 * e + 1], "edge");
+            degree[from[e]]++;
+            degree[to[e]]++;
+        }
+
+        int[] offsets = new int[unique + 1];
+        for (int i = 0; i < unique; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        int[] adjacency = new int[offsets[unique]];
+        int[] cursor = Arrays.copyOf(offsets, unique);
+        for (int e = 0; e < edgeCount; e++) {
+            adjacency[cursor[from[e]]++] = to[e];
+            adjacency[cursor[to[e]]++] = from[e];
+        }
+
+        int station = stationKey == null ? NO_NODE : resolve(locations, stationKey, "station");
+        int[] fires = new int[fireKeys.size];
+        for (int i = 0; i < fires.length; i++) {
+            fires[i] = resolve(locations, fireKeys.values[i], "fire");
+        }
+        return new CompactGraph(locations, offsets, adjacency, station, fires);
+    }
+
+    private static int resolve(long[] locations, long key, String what) throws IOException {
+        int index = Arrays.binarySearch(locations, key);
+        if (index < 0) {
+            throw new IOException("Unknown node (" + unpackX(key) + ", " + unpackY(key) + ") in " + what);
+        }
+        return index;
+    }
+
+    /**
+     * Packs a location into a single long.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The packed location.
+     */
+    static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int unpackY(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Restores every node to NORMAL with no agents, and ignites the initial fires.
+     */
+    public void reset() {
+        Arrays.fill(states, NORMAL);
+        Arrays.fill(occupants, NO_AGENT);
+        Arrays.fill(nearFireSince, 0);
+        Arrays.fill(lastVisited, 0);
+        currentTick = 0;
+        clearFrontier();
+        for (LongAdder count : stateCounts) {
+            count.reset();
+        }
+        stateCounts[NORMAL].add(states.length);
+        for (int fire : fireStarts) {
+            setState(fire, ON_FIRE);
+        }
+        changedAll();
+    }
+
+    /**
+     * Creates an independent graph over the same network, in its initial state and with the
+     * same walk policy. Locations and adjacency never change and are shared; node states,
+     * occupants and visit times belong to the copy, so copies can run on different threads.
+     * @return The copy.
+     */
+    CompactGraph copy() {
+        CompactGraph copy = new CompactGraph(locations, offsets, adjacency, station, fireStarts);
+        copy.walkPolicy = walkPolicy;
+        return copy;
+    }
+
+    /**
+     * Gets the number of sensor nodes.
+     * @return The node count.
+     */
+    public int size() {
+        return states.length;
+    }
+
+    /**
+     * Gets the number of (undirected) edges.
+     * @return The edge count.
+     */
+    public int edgeCount() {
+        return adjacency.length / 2;
+    }
+
+    /**
+     * Finds the node at a location.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The node index, or {@link #NO_NODE} if there is no sensor there.
+     */
+    public int indexOf(int x, int y) {
+        int index = Arrays.binarySearch(locations, pack(x, y));
+        return index < 0 ? NO_NODE : index;
+    }
+
+    public int getX(int node) {
+        return unpackX(locations[node]);
+    }
+
+    public int getY(int node) {
+        return unpackY(locations[node]);
+    }
+
+    public int getStation() {
+        return station;
+    }
+
+    /**
+     * Gets the last fire start, matching the single fire of the object-graph model.
+     * @return The node index, or {@link #NO_NODE} if the configuration has no fire.
+     */
+    public int getFireStart() {
+        return fireStarts.length == 0 ? NO_NODE : fireStarts[fireStarts.length - 1];
+    }
+
+    /**
+     * Gets every fire start.
+     * @return The node indices burning at the start, in configuration order.
+     */
+    public int[] getFireStarts() {
+        return fireStarts.clone();
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Gets the k-th neighbor of a node.
+     * @param node The node index.
+     * @param k The neighbor position, from 0 to degree(node) - 1.
+     * @return The neighbor's node index.
+     */
+    public int neighbor(int node, int k) {
+        return adjacency[offsets[node] + k];
+    }
+
+    public byte getStateCode(int node) {
+        return states[node];
+    }
+
+    /**
+     * Gets the number of nodes currently in a state, maintained on every transition.
+     * @param state The state code: {@link #NORMAL}, {@link #NEAR_FIRE} or {@link #ON_FIRE}.
+     * @return The node count.
+     */
+    public long getStateCount(byte state) {
+        return stateCounts[state].sum();
+    }
+
+    /**
+     * Changes a node's state and keeps the per-state counters in step.
+     * @param node The node index.
+     * @param state The new state code.
+     */
+    private void setState(int node, byte state) {
+        byte old = states[node];
+        if (old == state) return;
+        states[node] = state;
+        stateCounts[old].decrement();
+        stateCounts[state].increment();
+        if (state == ON_FIRE) {
+            newlyBurning.add(node);
+        }
+        if (stateListener != null) {
+            stateListener.stateChanged(node, old, state);
+        }
+        changed(node);
+    }
+
+    /**
+     * Registers the listener notified of every state transition.
+     * @param listener The listener, or null to remove it.
+     */
+    public void setStateListener(StateListener listener) {
+        this.stateListener = listener;
+    }
+
+    /**
+     * Registers the feed that receives the index of every node whose state or occupant
+     * changed, e.g. a {@link DirtyTiles} tracker for redrawing only what changed. A reset or
+     * restore reports every node. Agents report from the thread that moved them, so the
+     * feed must be thread-safe if agents step in parallel.
+     * @param feed The feed, or null to remove it.
+     */
+    public void setChangeFeed(IntConsumer feed) {
+        this.changeFeed = feed;
+    }
+
+    private void changed(int node) {
+        IntConsumer feed = changeFeed;
+        if (feed != null) {
+            feed.accept(node);
+        }
+    }
+
+    private void changedAll() {
+        IntConsumer feed = changeFeed;
+        if (feed == null) return;
+
+        for (int node = 0; node < states.length; node++) {
+            feed.accept(node);
+        }
+    }
+    /**
+     * Overwrites every node's state and occupant, e.g. when restoring a snapshot.
+     * Fire timers restart at the given tick.
+     * @param newStates One state code per node.
+     * @param newOccupants One agent ID (or {@link #NO_AGENT}) per node.
+     * @param tick The tick the restored state belongs to.
+     */
+    public void restore(byte[] newStates, int[] newOccupants, int tick) {
+        restoreNodes(newStates, newOccupants);
+        Arrays.fill(nearFireSince, tick);
+        currentTick = tick;
+        rebuildFrontier(tick);
+    }
+
+    /**
+     * Overwrites every node's state, occupant and fire timer, e.g. when resuming a checkpoint.
+     * @param newStates One state code per node.
+     * @param newOccupants One agent ID (or {@link #NO_AGENT}) per node.
+     * @param fireTimers The tick each node turned NEAR_FIRE, one per node.
+     * @param tick The tick the restored state belongs to.
+     */
+    public void restore(byte[] newStates, int[] newOccupants, int[] fireTimers, int tick) {
+        if (fireTimers.length != nearFireSince.length) {
+            throw new IllegalArgumentException("Snapshot has " + fireTimers.length + " nodes, graph has " + states.length);
+        }
+        restoreNodes(newStates, newOccupants);
+        System.arraycopy(fireTimers, 0, nearFireSince, 0, nearFireSince.length);
+        currentTick = tick;
+        rebuildFrontier(tick);
+    }
+
+    private void clearFrontier() {
+        newlyBurning.clear();
+        for (IntList slot : ignitionWheel) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Recomputes the fire frontier from the node states after a restore.
+     * @param tick The tick the restored state belongs to.
+     */
+    private void rebuildFrontier(int tick) {
+        clearFrontier();
+        for (int node = 0; node < states.length; node++) {
+            if (states[node] == ON_FIRE) {
+                newlyBurning.add(node);
+            } else if (states[node] == NEAR_FIRE && owns(node)) {
+                scheduleIgnitionCheck(node, Math.max(tick, nearFireSince[node] + IGNITION_DELAY_TICKS));
+            }
+        }
+    }
+
+    private void scheduleIgnitionCheck(int node, int tick) {
+        ignitionWheel[tick & (WHEEL_SIZE - 1)].add(node);
+    }
+
+    private void restoreNodes(byte[] newStates, int[] newOccupants) {
+        if (newStates.length != states.length || newOccupants.length != occupants.length) {
+            throw new IllegalArgumentException("Snapshot has " + newStates.length + " nodes, graph has " + states.length);
+        }
+        System.arraycopy(newStates, 0, states, 0, states.length);
+        System.arraycopy(newOccupants, 0, occupants, 0, occupants.length);
+        Arrays.fill(lastVisited, 0);
+        changedAll();
+        long[] counts = new long[stateCounts.length];
+        for (byte state : states) {
+            counts[state]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            stateCounts[i].reset();
+            stateCounts[i].add(counts[i]);
+        }
+    }
+
+    /**
+     * Gets the tick at which a node last turned (or re-armed) NEAR_FIRE.
+     * @param node The node index.
+     * @return The fire timer's start tick.
+     */
+    int getFireTimer(int node) {
+        return nearFireSince[node];
+    }
+
+    /**
+     * Restricts fire spread to a range of nodes, the partition a worker owns.
+     * @param from The first owned node.
+     * @param to One past the last owned node.
+     */
+    void setOwnedRange(int from, int to) {
+        ownedFrom = from;
+        ownedTo = to;
+    }
+
+    /**
+     * Checks whether a node belongs to this graph's partition; every node does unless
+     * {@link #setOwnedRange(int, int)} was called.
+     * @param node The node index.
+     * @return true if fire may spread onto the node here.
+     */
+    boolean owns(int node) {
+        return node >= ownedFrom && node < ownedTo;
+    }
+
+    /**
+     * Copies the state and occupant of a node owned by another partition. A mirrored node
+     * that ignites still makes the owned nodes next to it turn yellow.
+     * @param node The node index.
+     * @param state The owner's state code for the node.
+     * @param occupant The owner's occupant of the node, or {@link #NO_AGENT}.
+     */
+    void mirror(int node, byte state, int occupant) {
+        setState(node, state);
+        OCCUPANTS.setVolatile(occupants, node, occupant);
+        changed(node);
+    }
+
+    /**
+     * Gets the tick at which an agent last arrived on a node, by walking, cloning or being placed.
+     * Visits are recorded with relaxed (opaque) writes, so a concurrent reader may see a
+     * slightly stale tick. Visits are not part of snapshots, but checkpoints keep them.
+     * @param node The node index.
+     * @return The tick, or -1 if no agent has been on the node since the last reset.
+     */
+    int getLastVisit(int node) {
+        return (int) VISITS.getOpaque(lastVisited, node) - 1;
+    }
+
+    /**
+     * Overwrites the tick each node was last visited, e.g. when resuming a checkpoint.
+     * Must be called after {@link #restore}, which forgets every visit.
+     * @param ticks One tick per node, as returned by {@link #getLastVisit}, or -1 for never.
+     */
+    void restoreVisits(int[] ticks) {
+        if (ticks.length != lastVisited.length) {
+            throw new IllegalArgumentException("Snapshot has " + ticks.length + " nodes, graph has " + states.length);
+        }
+        for (int node = 0; node < ticks.length; node++) {
+            lastVisited[node] = ticks[node] + 1;
+        }
+    }
+
+    /**
+     * Chooses how agents pick the neighbor they walk to.
+     * @param policy The walk policy; {@link WalkPolicy#RANDOM} by default.
+     */
+    public void setWalkPolicy(WalkPolicy policy) {
+        this.walkPolicy = policy;
+    }
+
+    public WalkPolicy getWalkPolicy() {
+        return walkPolicy;
+    }
+
+    public int getOccupant(int node) {
+        return (int) OCCUPANTS.getVolatile(occupants, node);
+    }
+
+    public boolean hasAgent(int node) {
+        return getOccupant(node) != NO_AGENT;
+    }
+
+    /**
+     * Places an agent on an unoccupied node that is not burning.
+     * @param node The node index.
+     * @param agentId The agent's unique identifier.
+     * @return true if the agent was placed.
+     */
+    public boolean placeAgent(int node, int agentId) {
+        if (states[node] == ON_FIRE || !OCCUPANTS.compareAndSet(occupants, node, NO_AGENT, agentId)) {
+            return false;
+        }
+        if (states[node] == ON_FIRE) {
+            // The node ignited between the check and the claim; give it back.
+            OCCUPANTS.compareAndSet(occupants, node, agentId, NO_AGENT);
+            return false;
+        }
+        // Walks only need an approximate recency, so the stamp is written without ordering.
+        VISITS.setOpaque(lastVisited, node, currentTick + 1);
+        changed(node);
+        return true;
+    }
+
+    /**
+     * Moves an agent between two nodes by claiming the target and then releasing the source.
+     * @param from The node the agent is on.
+     * @param to The node to move to.
+     * @param agentId The agent's unique identifier.
+     * @return true if the agent moved; false if the target was taken or burning.
+     */
+    public boolean tryMove(int from, int to, int agentId) {
+        moveAttempts.increment();
+        if (!placeAgent(to, agentId)) {
+            return false;
+        }
+        OCCUPANTS.compareAndSet(occupants, from, agentId, NO_AGENT);
+        changed(from);
+        movesCompleted.increment();
+        return true;
+    }
+
+    /**
+     * Sets a node on fire, removing any agent on it.
+     * @param node The node index.
+     * @return The ID of the agent that was on the node, or {@link #NO_AGENT}.
+     */
+    public int ignite(int node) {
+        setState(node, ON_FIRE);
+        return (int) OCCUPANTS.getAndSet(occupants, node, NO_AGENT);
+    }
+
+    /**
+     * Removes the agent on a node, if any, without changing the node's state.
+     * @param node The node index.
+     * @return The ID of the agent that was on the node, or {@link #NO_AGENT}.
+     */
+    int evict(int node) {
+        int agent = (int) OCCUPANTS.getAndSet(occupants, node, NO_AGENT);
+        changed(node);
+        return agent;
+    }
+
+    /**
+     * Gets the number of moves attempted through {@link #tryMove(int, int, int)}.
+     * @return The attempt count.
+     */
+    public long getMoveAttempts() {
+        return moveAttempts.sum();
+    }
+
+    /**
+     * Gets the number of moves that claimed their target.
+     * @return The success count.
+     */
+    public long getMovesCompleted() {
+        return movesCompleted.sum();
+    }
+
+    /**
+     * Evaluates one tick of fire spread on the fire frontier.
+     * Yellow nodes whose {@link #IGNITION_DELAY_TICKS} have elapsed ignite with
+     * {@link #IGNITION_PROBABILITY}, otherwise their timer restarts; then every NORMAL
+     * neighbor of a node that started burning since the last call turns yellow.
+     * Must be called once per tick, with consecutive tick numbers; agent visits until the
+     * next call are recorded at this tick.
+     * @param tick The current tick.
+     * @param random The random source for ignition rolls.
+     * @param burnedAgents Receives the ID of every agent whose node ignited; may be null.
+     * @return The number of nodes that ignited.
+     */
+    public int spreadFire(int tick, Random random, IntConsumer burnedAgents) {
+        currentTick = tick;
+        int ignited = 0;
+        IntList due = ignitionWheel[tick & (WHEEL_SIZE - 1)];
+        // Roll in node order, so a run restored from a checkpoint draws the same numbers.
+        due.sort();
+        for (int i = 0; i < due.size(); i++) {
+            int node = due.get(i);
+            if (states[node] != NEAR_FIRE) continue;
+
+            if (random.nextDouble() < IGNITION_PROBABILITY) {
+                int agent = ignite(node);
+                if (agent != NO_AGENT && burnedAgents != null) {
+                    burnedAgents.accept(agent);
+                }
+                ignited++;
+            } else {
+                nearFireSince[node] = tick;
+                scheduleIgnitionCheck(node, tick + IGNITION_DELAY_TICKS);
+            }
+        }
+        due.clear();
+
+        for (int i = 0; i < newlyBurning.size(); i++) {
+            int node = newlyBurning.get(i);
+            for (int k = offsets[node], end = offsets[node + 1]; k < end; k++) {
+                int neighbor = adjacency[k];
+                if (states[neighbor] == NORMAL && owns(neighbor)) {
+                    setState(neighbor, NEAR_FIRE);
+                    nearFireSince[neighbor] = tick;
+                    scheduleIgnitionCheck(neighbor, tick + IGNITION_DELAY_TICKS);
+                }
+            }
+        }
+        newlyBurning.clear();
+        return ignited;
+    }
+
+    /**
+     * Performs one agent step on a node: clones onto every free neighbor when the node
+     * is yellow, otherwise walks to a free neighbor, preferring yellow over blue ones.
+     * @param node The node the agent is on.
+     * @param random The agent's random source.
+     * @param nextAgentId Supplies IDs for clones.
+     * @param clones Receives the node index of every clone created; may be null.
+     * @return The node the agent is on after the step.
+     */
+    public int step(int node, Random random, IntSupplier nextAgentId, IntConsumer clones) {
+        return step(node, random, nextAgentId, null, clones);
+    }
+
+    /**
+     * Performs one agent step on a node, asking an admission check before each clone.
+     * @param node The node the agent is on.
+     * @param random The agent's random source.
+     * @param nextAgentId Supplies IDs for clones.
+     * @param admitClone Decides whether a clone may be placed on a free neighbor; may be null to admit all.
+     * @param clones Receives the node index of every clone created; may be null.
+     * @return The node the agent is on after the step.
+     */
+    public int step(int node, Random random, IntSupplier nextAgentId, IntPredicate admitClone, IntConsumer clones) {
+        return step(node, random, nextAgentId, admitClone, clones, null);
+    }
+
+    /**
+     * Performs one agent step on a node of a partition. Clones and walks onto foreign nodes
+     * reserve the node's mirror for the agent and are handed to the boundary instead; the
+     * owner of the node decides whether to admit and place them.
+     * @param boundary Receives agents leaving the partition; may be null if every node is owned.
+     * @return The node the agent is on after the step; an agent walking out stays where it is.
+     */
+    int step(int node, Random random, IntSupplier nextAgentId, IntPredicate admitClone, IntConsumer clones,
+             Boundary boundary) {
+        int agent = getOccupant(node);
+        if (agent == NO_AGENT) {
+            return node;
+        }
+        if (states[node] == NEAR_FIRE) {
+            for (int k = offsets[node], end = offsets[node + 1]; k < end; k++) {
+                int neighbor = adjacency[k];
+                if (states[neighbor] == ON_FIRE || hasAgent(neighbor)) {
+                    continue;
+                }
+                if (boundary != null && !owns(neighbor)) {
+                    if (placeAgent(neighbor, agent)) boundary.clonedAcross(node, neighbor, agent);
+                    continue;
+                }
+                if (admitClone != null && !admitClone.test(neighbor)) {
+                    continue;
+                }
+                if (placeClone(neighbor, nextAgentId) && clones != null) {
+                    clones.accept(neighbor);
+                }
+            }
+            return node;
+        }
+
+        int target = walkTarget(node, random);
+        if (target == NO_NODE) {
+            return node;
+        }
+        if (boundary != null && !owns(target)) {
+            if (placeAgent(target, agent)) boundary.walkedAcross(node, target, agent);
+            return node;
+        }
+        return tryMove(node, target, agent) ? target : node;
+    }
+
+    /**
+     * Places a new clone on a free node.
+     * The ID is only drawn once the node is claimed, so a lost race uses up no ID.
+     * @param node The node index.
+     * @param nextAgentId Supplies the clone's ID.
+     * @return true if the clone was placed.
+     */
+    boolean placeClone(int node, IntSupplier nextAgentId) {
+        if (!placeAgent(node, CLAIMED)) {
+            return false;
+        }
+        OCCUPANTS.setVolatile(occupants, node, nextAgentId.getAsInt());
+        changed(node);
+        return true;
+    }
+
+    /**
+     * Receives agents that a step sends onto nodes owned by another partition. The foreign
+     * node's mirror is already reserved for the agent, so no other agent of this partition
+     * is sent to the same node in the same tick.
+     */
+    interface Boundary {
+        /**
+         * @param from The node the agent is on.
+         * @param to The foreign node it walks to.
+         * @param agent The agent's ID.
+         */
+        void walkedAcross(int from, int to, int agent);
+
+        /**
+         * @param from The yellow node of the parent.
+         * @param to The foreign node the clone goes to.
+         * @param parent The parent's ID.
+         */
+        void clonedAcross(int from, int to, int parent);
+    }
+
+    /**
+     * Moves the agent on a node to a free neighbor, preferring yellow over blue ones and
+     * choosing among those according to the {@link WalkPolicy}.
+     * @param node The node the agent is on.
+     * @param random The agent's random source.
+     * @return The node the agent is on after the move.
+     */
+    public int walk(int node, Random random) {
+        int agent = getOccupant(node);
+        if (agent == NO_AGENT) {
+            return node;
+        }
+        int target = walkTarget(node, random);
+        if (target == NO_NODE) {
+            return node;
+        }
+        return tryMove(node, target, agent) ? target : node;
+    }
+
+    /**
+     * Picks the neighbor an agent on a node would walk to, without moving it.
+     * @param node The node the agent is on.
+     * @param random The agent's random source.
+     * @return The chosen free neighbor, or {@link #NO_NODE} if there is none.
+     */
+    int walkTarget(int node, Random random) {
+        if (walkPolicy == WalkPolicy.COVERAGE) {
+            return leastVisitedNeighbor(node, random);
+        }
+        int yellow = 0;
+        int blue = 0;
+        int start = offsets[node];
+        int end = offsets[node + 1];
+        for (int k = start; k < end; k++) {
+            int neighbor = adjacency[k];
+            if (occupants[neighbor] == NO_AGENT) {
+                if (states[neighbor] == NEAR_FIRE) yellow++;
+                else if (states[neighbor] == NORMAL) blue++;
+            }
+        }
+        if (yellow + blue == 0) {
+            return NO_NODE;
+        }
+
+        byte wanted = yellow > 0 ? NEAR_FIRE : NORMAL;
+        int remaining = random.nextInt(yellow > 0 ? yellow : blue);
+        for (int k = start; k < end; k++) {
+            int neighbor = adjacency[k];
+            if (occupants[neighbor] == NO_AGENT && states[neighbor] == wanted && remaining-- == 0) {
+                return neighbor;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Picks the least recently visited free neighbor of the preferred color.
+     * Another agent may visit or claim the chosen node before the move; the agent then
+     * stays put this tick, as it would after losing any other race for a node.
+     */
+    private int leastVisitedNeighbor(int node, Random random) {
+        int start = offsets[node];
+        int end = offsets[node + 1];
+        byte wanted = NORMAL;
+        int oldest = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int k = start; k < end; k++) {
+            int neighbor = adjacency[k];
+            byte state = states[neighbor];
+            if (occupants[neighbor] != NO_AGENT || state == ON_FIRE) continue;
+
+            if (state == NEAR_FIRE && wanted == NORMAL) {
+                // The first yellow neighbor outranks every blue one seen so far.
+                wanted = NEAR_FIRE;
+                oldest = Integer.MAX_VALUE;
+                ties = 0;
+            }
+            if (state != wanted) continue;
+
+            int visited = (int) VISITS.getOpaque(lastVisited, neighbor);
+            if (visited < oldest) {
+                oldest = visited;
+                ties = 1;
+            } else if (visited == oldest) {
+                ties++;
+            }
+        }
+        if (ties == 0) {
+            return NO_NODE;
+        }
+
+        int remaining = random.nextInt(ties);
+        for (int k = start; k < end; k++) {
+            int neighbor = adjacency[k];
+            if (occupants[neighbor] == NO_AGENT && states[neighbor] == wanted
+                    && (int) VISITS.getOpaque(lastVisited, neighbor) == oldest && remaining-- == 0) {
+                return neighbor;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Estimates the heap used by this graph's arrays.
+     * @return The approximate size in bytes.
+     */
+    public long memoryFootprint() {
+        return arrayBytes(locations.length, 8) + arrayBytes(offsets.length, 4)
+                + arrayBytes(adjacency.length, 4) + arrayBytes(states.length, 1)
+                + arrayBytes(occupants.length, 4) + arrayBytes(nearFireSince.length, 4)
+                + arrayBytes(lastVisited.length, 4);
+    }
+
+    private static long arrayBytes(long length, int elementSize) {
+        return (16 + length * elementSize + 7) & ~7L;
+    }
+
+    long[] locationArray() {
+        return locations;
+    }
+
+    int[] offsetArray() {
+        return offsets;
+    }
+
+    int[] adjacencyArray() {
+        return adjacency;
+    }
+
+    /**
+     * Minimal growable int array used for the fire frontier.
+     */
+    static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Sorts the values in place with a heapsort. Arrays.sort allocates a merge buffer
+         * for input made of sorted runs, which is what the ignition wheel holds, and this
+         * runs every tick.
+         */
+        void sort() {
+            for (int root = size / 2 - 1; root >= 0; root--) {
+                siftDown(root, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                int largest = values[0];
+                values[0] = values[end];
+                values[end] = largest;
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int root, int end) {
+            int value = values[root];
+            int child;
+            while ((child = 2 * root + 1) < end) {
+                if (child + 1 < end && values[child + 1] > values[child]) child++;
+                if (values[child] <= value) break;
+                values[root] = values[child];
+                root = child;
+            }
+            values[root] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * Minimal growable long array used while loading.
+     */
+    static class LongBuffer {
+        long[] values = new long[1024];
+        int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package fireSimulation;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a complete fire scenario on a {@link CompactGraph} in discrete ticks.
+ * Agents are kept in two parallel int arrays (ID and current node) instead of one
+ * {@code MobileAgent} thread each; every tick evaluates fire spread once and then steps
+ * every agent once. With the same graph and seed two runs produce the same events.
+ * A tick never sleeps, so a caller stepping in a loop runs as fast as the CPU allows; this is
+ * the engine behind the headless tools and the event journal.
+ * With {@link #setParallelism(ForkJoinPool)} agents are instead stepped in cohorts on a
+ * work-stealing pool, trading reproducibility for throughput on large populations.
+ */
+public class CompactSimulation {
+    /** Simulated time per tick, as seen by a clone admission policy on {@link #simulatedClock()}. */
+    public static final long NANOS_PER_TICK = 1_000_000_000L;
+    private static final int INITIAL_AGENT_CAPACITY = 1024;
+    /** The agent placed on the base station; every other agent is a clone. */
+    private static final int STATION_AGENT_ID = 0;
+    /** Default number of agents a cohort steps itself instead of splitting in two. */
+    private static final int COHORT_SIZE = 4096;
+
+    private final CompactGraph graph;
+    private final long seed;
+    private Random random;
+    private int[] agentIds = new int[INITIAL_AGENT_CAPACITY];
+    private int[] agentNodes = new int[INITIAL_AGENT_CAPACITY];
+    private int agentCount = 0;
+    private int nextAgentId = 0;
+    private int tick = 0;
+    private EventJournal journal;
+    private int parentAgentId;
+    private CloneAdmission admission;
+    // Callbacks are created once so that a tick allocates nothing per agent.
+    private final IntPredicate cloneAdmitter = this::admitClone;
+    private final IntSupplier agentIdSource = () -> nextAgentId++;
+    private final IntConsumer cloneListener = this::cloneCreated;
+    private ForkJoinPool pool;
+    private final AtomicInteger parallelAgentIds = new AtomicInteger();
+    private Cohort[] cohorts = new Cohort[0];
+    private int cohortSize = COHORT_SIZE;
+
+    /**
+     * Constructs a simulation over a graph.
+     * @param graph The sensor network.
+     * @param seed Seed for fire spread and agent movement.
+     */
+    public CompactSimulation(CompactGraph graph, long seed) {
+        this.graph = graph;
+        this.seed = seed;
+        reset();
+    }
+
+    /**
+     * Restores the graph to its initial state and places the first agent on the base station.
+     */
+    public final void reset() {
+        graph.reset();
+        random = new Random(seed);
+        agentCount = 0;
+        nextAgentId = STATION_AGENT_ID;
+        tick = 0;
+        if (admission != null) {
+            admission.reset();
+        }
+        int station = graph.getStation();
+        if (station != CompactGraph.NO_NODE) {
+            int id = nextAgentId++;
+            if (graph.placeAgent(station, id)) {
+                addAgent(id, station);
+                if (journal != null) journal.agentCreated(id, station);
+            }
+        }
+    }
+
+    /**
+     * Records every subsequent event, and a snapshot of the current state, in a journal.
+     * @param journal The journal to write to, or null to stop journaling.
+     */
+    public void setJournal(EventJournal journal) {
+        if (journal != null && pool != null) {
+            throw new IllegalStateException("Parallel stepping cannot be journaled.");
+        }
+        this.journal = journal;
+        graph.setStateListener(journal == null ? null : journal::stateChanged);
+        if (journal != null) {
+            journal.snapshot(tick, graph);
+        }
+    }
+
+    /**
+     * Steps agents in cohorts on a work-stealing pool instead of one by one. A cohort is a run
+     * of consecutive agents; since clones are appended together and always start next to their
+     * parent, a cohort mostly works on one area of the graph. Agents keep their stepping order,
+     * which the outcome of a tick depends on, rather than being re-sorted by node.
+     * An agent moving or cloning into another cohort's area races for the node's atomic claim;
+     * the loser stays where it is, exactly as if the node had been taken earlier in a
+     * sequential tick. Fire spread and removal of burned agents stay sequential.
+     * Parallel ticks are not reproducible from the seed and cannot be journaled. On a pool of
+     * parallelism 1 the cohorts run one after another in agent order and draw from the
+     * simulation's seeded random, so such a run matches the sequential run exactly.
+     * @param pool The pool to step on, or null to step sequentially.
+     */
+    public void setParallelism(ForkJoinPool pool) {
+        if (pool != null && journal != null) {
+            throw new IllegalStateException("Parallel stepping cannot be journaled.");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Changes the number of agents per cohort, so tests can split small populations.
+     * @param size Agents per cohort.
+     */
+    void setCohortSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cohort size must be positive: " + size);
+        }
+        this.cohortSize = size;
+    }
+
+    /**
+     * Limits clone creation with an admission policy. Clones already alive are counted
+     * against it. For reproducible runs the policy should use {@link #simulatedClock()}.
+     * @param admission The policy, or null to admit every clone.
+     */
+    public void setCloneAdmission(CloneAdmission admission) {
+        this.admission = admission;
+        adoptClones();
+    }
+
+    /**
+     * Gets a clock that advances {@link #NANOS_PER_TICK} per tick of this simulation.
+     * @return The simulated clock.
+     */
+    public LongSupplier simulatedClock() {
+        return () -> tick * NANOS_PER_TICK;
+    }
+
+    private void adoptClones() {
+        if (admission == null) return;
+
+        admission.reset();
+        for (int i = 0; i < agentCount; i++) {
+            if (agentIds[i] != STATION_AGENT_ID) {
+                admission.adopt(regionOf(agentNodes[i]));
+            }
+        }
+    }
+
+    /**
+     * Evaluates one tick: fire spread, removal of burned agents, then one step per agent.
+     */
+    public void tick() {
+        long start = SimulationMetrics.startTimer();
+        if (journal != null) {
+            journal.tick(tick);
+        }
+        graph.spreadFire(tick, random, null);
+        removeBurnedAgents();
+
+        int stepping = agentCount;
+        long attempts = graph.getMoveAttempts();
+        long completed = graph.getMovesCompleted();
+        if (pool != null) {
+            stepCohorts();
+        } else {
+            stepAll();
+        }
+        SimulationMetrics.ticked(stepping, agentCount - stepping,
+                graph.getMoveAttempts() - attempts, graph.getMovesCompleted() - completed);
+        SimulationMetrics.tickLatency().record(start);
+
+        tick++;
+        if (journal != null) {
+            journal.maybeSnapshot(tick, graph);
+        }
+    }
+
+    private void stepAll() {
+        int stepping = agentCount;
+        for (int i = 0; i < stepping; i++) {
+            int node = agentNodes[i];
+            parentAgentId = agentIds[i];
+            int next = graph.step(node, random, agentIdSource,
+                    admission == null ? null : cloneAdmitter, cloneListener);
+            if (next != node) {
+                agentNodes[i] = next;
+                if (admission != null && agentIds[i] != STATION_AGENT_ID) {
+                    admission.moved(regionOf(node), regionOf(next));
+                }
+                if (journal != null) journal.agentMoved(agentIds[i], node, next);
+            }
+        }
+    }
+
+    /**
+     * Steps runs of {@link #cohortSize} consecutive agents as fork-join tasks. Clones are
+     * collected per cohort and appended in cohort order once every cohort has finished.
+     */
+    private void stepCohorts() {
+        int count = (agentCount + cohortSize - 1) / cohortSize;
+        if (count == 0) return;
+
+        if (cohorts.length < count) {
+            cohorts = Arrays.copyOf(cohorts, count);
+            for (int c = 0; c < count; c++) {
+                if (cohorts[c] == null) cohorts[c] = new Cohort();
+            }
+        }
+        parallelAgentIds.set(nextAgentId);
+        pool.invoke(new CohortTask(0, count, agentCount));
+        nextAgentId = parallelAgentIds.get();
+
+        for (int c = 0; c < count; c++) {
+            CompactGraph.IntList clones = cohorts[c].clones;
+            for (int k = 0; k < clones.size(); k++) {
+                int node = clones.get(k);
+                addAgent(graph.getOccupant(node), node);
+            }
+            clones.clear();
+        }
+    }
+
+    /**
+     * Asks the admission policy for a clone onto a node, logging a refusal.
+     */
+    private boolean admitClone(int node) {
+        return admitClone(node, parentAgentId);
+    }
+
+    private boolean admitClone(int node, int parent) {
+        return admitClone(admission, graph, node, parent);
+    }
+
+    /**
+     * Asks an admission policy for a clone onto a node of a graph, logging a refusal; the
+     * partition workers share this with the single-process engine.
+     * @return true if the clone was admitted and counted.
+     */
+    static boolean admitClone(CloneAdmission admission, CompactGraph graph, int node, int parent) {
+        CloneAdmission.Verdict verdict = admission.tryAdmit(admission.regionOf(graph.getX(node), graph.getY(node)));
+        if (verdict == CloneAdmission.Verdict.ADMITTED) {
+            return true;
+        }
+        if (EventLog.isEnabled(EventLog.Level.DEBUG)) {
+            EventLog.debug(EventLog.EventType.CLONE_REJECTED, parent,
+                    "(" + graph.getX(node) + ", " + graph.getY(node) + ")");
+        }
+        if (admission.shouldReportRefusal()) {
+            EventLog.warn(EventLog.EventType.CLONE_ADMISSION_SATURATED, parent, verdict);
+        }
+        return false;
+    }
+
+    private long regionOf(int node) {
+        return admission.regionOf(graph.getX(node), graph.getY(node));
+    }
+
+    private void cloneCreated(int node) {
+        int id = graph.getOccupant(node);
+        addAgent(id, node);
+        if (journal != null) journal.agentCloned(id, parentAgentId, node);
+    }
+
+    /**
+     * Drops agents whose node ignited under them; fire spread already cleared their slot.
+     */
+    private void removeBurnedAgents() {
+        int kept = 0;
+        for (int i = 0; i < agentCount; i++) {
+            if (graph.getOccupant(agentNodes[i]) == agentIds[i]) {
+                agentIds[kept] = agentIds[i];
+                agentNodes[kept] = agentNodes[i];
+                kept++;
+            } else {
+                if (admission != null && agentIds[i] != STATION_AGENT_ID) {
+                    admission.release(regionOf(agentNodes[i]));
+                }
+                if (journal != null) journal.agentDestroyed(agentIds[i], agentNodes[i]);
+            }
+        }
+        agentCount = kept;
+    }
+
+    private void addAgent(int id, int node) {
+        if (agentCount == agentIds.length) {
+            agentIds = Arrays.copyOf(agentIds, agentCount * 2);
+            agentNodes = Arrays.copyOf(agentNodes, agentCount * 2);
+        }
+        agentIds[agentCount] = id;
+        agentNodes[agentCount] = node;
+        agentCount++;
+    }
+
+    /**
+     * Replaces the run state with a checkpoint's; the graph must already hold the checkpoint's nodes.
+     * @param tick The tick to resume at.
+     * @param nextId The next agent ID to hand out.
+     * @param restoredRandom The random source, in the state it had at the checkpoint.
+     * @param ids Agent IDs, in stepping order.
+     * @param nodes The node of each agent.
+     */
+    void restoreRun(int tick, int nextId, Random restoredRandom, int[] ids, int[] nodes) {
+        this.tick = tick;
+        this.nextAgentId = nextId;
+        this.random = restoredRandom;
+        this.agentIds = Arrays.copyOf(ids, Math.max(ids.length, INITIAL_AGENT_CAPACITY));
+        this.agentNodes = Arrays.copyOf(nodes, Math.max(nodes.length, INITIAL_AGENT_CAPACITY));
+        this.agentCount = ids.length;
+        adoptClones();
+    }
+
+    Random getRandom() {
+        return random;
+    }
+
+    int getAgentId(int index) {
+        return agentIds[index];
+    }
+
+    int getAgentNode(int index) {
+        return agentNodes[index];
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of agents currently alive.
+     * @return The active agent count.
+     */
+    public int getAgentCount() {
+        return agentCount;
+    }
+
+    /**
+     * Gets the number of agents ever created, including clones.
+     * @return The total agent count.
+     */
+    public int getAgentsSpawned() {
+        return nextAgentId;
+    }
+
+    /**
+     * Splits a range of cohorts in halves until one is left, letting idle workers steal the rest.
+     */
+    private final class CohortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int first;
+        private final int last;
+        private final int stepping;
+
+        CohortTask(int first, int last, int stepping) {
+            this.first = first;
+            this.last = last;
+            this.stepping = stepping;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                cohorts[first].step(first * cohortSize, Math.min(stepping, (first + 1) * cohortSize));
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new CohortTask(first, middle, stepping), new CohortTask(middle, last, stepping));
+        }
+    }
+
+    /**
+     * Steps one range of agents on one worker. Only this cohort writes the agents' slots;
+     * nodes are shared with the other cohorts and are claimed atomically by the graph.
+     */
+    private final class Cohort implements IntSupplier, IntPredicate, IntConsumer {
+        private final CompactGraph.IntList clones = new CompactGraph.IntList();
+        private int parent;
+        /** Node of the last admitted clone, until the graph confirms it was placed. */
+        private int pendingAdmission = CompactGraph.NO_NODE;
+
+        void step(int from, int to) {
+            Random random = pool.getParallelism() == 1 ? CompactSimulation.this.random : ThreadLocalRandom.current();
+            boolean admitting = admission != null;
+            for (int i = from; i < to; i++) {
+                int node = agentNodes[i];
+                parent = agentIds[i];
+                int next = graph.step(node, random, this, admitting ? this : null, this);
+                releasePending();
+                if (next != node) {
+                    agentNodes[i] = next;
+                    if (admitting && parent != STATION_AGENT_ID) {
+                        admission.moved(regionOf(node), regionOf(next));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int getAsInt() {
+            return parallelAgentIds.getAndIncrement();
+        }
+
+        @Override
+        public boolean test(int node) {
+            // Another cohort may claim the node between admission and placement, so hold the
+            // admission until the clone is placed and give it back otherwise.
+            releasePending();
+            if (!admitClone(node, parent)) return false;
+
+            pendingAdmission = node;
+            return true;
+        }
+
+        @Override
+        public void accept(int node) {
+            pendingAdmission = CompactGraph.NO_NODE;
+            clones.add(node);
+        }
+
+        private void releasePending() {
+            if (pendingAdmission != CompactGraph.NO_NODE) {
+                admission.release(regionOf(pendingAdmission));
+                pendingAdmission = CompactGraph.NO_NODE;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package fireSimulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.IntConsumer;
+
+/**
+ * Tracks which square tiles of a graph's layout changed since they were last drawn, so a
+ * renderer can repaint only those tiles on top of a cached layer of the static edges.
+ * Register it with {@link CompactGraph#setChangeFeed(IntConsumer)}: every node whose state
+ * or occupant changes marks its tile dirty, and {@link #drain(IntConsumer)} reports and
+ * clears the dirty tiles once per frame. Nodes are grouped by tile once, when the tracker
+ * is built, so repainting a tile only visits its own nodes.
+ * Marking is lock-free and may happen on any thread, e.g. agents stepping in parallel
+ * cohorts; a tile marked while it is being drained is reported again on the next drain.
+ * Tiles cover node locations only: a renderer drawing nodes larger than a point repaints
+ * a tile together with a margin of one node radius.
+ */
+public final class DirtyTiles implements IntConsumer {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    /** Largest number of tiles a tracker may have, so a tiny tile size cannot exhaust memory. */
+    private static final long MAX_TILES = 1L << 26;
+
+    private final int tileSize;
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final int[] tileOfNode;
+    /** Nodes of tile t are tileNodes[tileStart[t]..tileStart[t + 1]). */
+    private final int[] tileStart;
+    private final int[] tileNodes;
+    private final long[] dirty;
+
+    /**
+     * Groups the nodes of a graph into square tiles. Every tile starts dirty, so the first
+     * frame draws everything.
+     * @param graph The graph whose layout is drawn.
+     * @param tileSize Side of a tile in location units.
+     */
+    public DirtyTiles(CompactGraph graph, int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        int n = graph.size();
+        int minX = 0;
+        int minY = 0;
+        int maxX = 0;
+        int maxY = 0;
+        for (int i = 0; i < n; i++) {
+            int x = graph.getX(i);
+            int y = graph.getY(i);
+            if (i == 0 || x < minX) minX = x;
+            if (i == 0 || y < minY) minY = y;
+            if (i == 0 || x > maxX) maxX = x;
+            if (i == 0 || y > maxY) maxY = y;
+        }
+        long tileColumns = ((long) maxX - minX) / tileSize + 1;
+        long tileRows = ((long) maxY - minY) / tileSize + 1;
+        if (tileColumns * tileRows > MAX_TILES) {
+            throw new IllegalArgumentException("Tile size " + tileSize + " gives " + tileColumns + " x "
+                    + tileRows + " tiles; use a larger tile size");
+        }
+        this.tileSize = tileSize;
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = (int) tileColumns;
+        this.rows = (int) tileRows;
+
+        int tiles = columns * rows;
+        tileOfNode = new int[n];
+        tileStart = new int[tiles + 1];
+        for (int i = 0; i < n; i++) {
+            int tile = (int) (((long) graph.getY(i) - originY) / tileSize * columns
+                    + ((long) graph.getX(i) - originX) / tileSize);
+            tileOfNode[i] = tile;
+            tileStart[tile + 1]++;
+        }
+        for (int t = 0; t < tiles; t++) {
+            tileStart[t + 1] += tileStart[t];
+        }
+        tileNodes = new int[n];
+        int[] next = new int[tiles];
+        for (int i = 0; i < n; i++) {
+            int tile = tileOfNode[i];
+            tileNodes[tileStart[tile] + next[tile]++] = i;
+        }
+        dirty = new long[(tiles + 63) >>> 6];
+        markAll();
+    }
+
+    /**
+     * Marks the tile of a changed node dirty; the {@link CompactGraph} change feed calls this.
+     * @param node The node index.
+     */
+    @Override
+    public void accept(int node) {
+        markTile(tileOfNode[node]);
+    }
+
+    /**
+     * Marks one tile dirty.
+     * @param tile The tile index.
+     */
+    public void markTile(int tile) {
+        int word = tile >>> 6;
+        long bit = 1L << tile;
+        // Most changes hit a tile that is already dirty; only the first one pays for the atomic update.
+        if (((long) WORDS.getOpaque(dirty, word) & bit) == 0) {
+            WORDS.getAndBitwiseOr(dirty, word, bit);
+        }
+    }
+
+    /**
+     * Marks every tile dirty, e.g. after a resize or a zoom.
+     */
+    public void markAll() {
+        int tiles = getTileCount();
+        for (int word = 0; word < dirty.length; word++) {
+            int bits = Math.min(64, tiles - (word << 6));
+            WORDS.getAndBitwiseOr(dirty, word, bits == 64 ? -1L : (1L << bits) - 1);
+        }
+    }
+
+    /**
+     * Reports every dirty tile once, in ascending order, and marks it clean.
+     * @param tiles Receives the index of each dirty tile.
+     * @return The number of tiles reported.
+     */
+    public int drain(IntConsumer tiles) {
+        int count = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            if ((long) WORDS.getOpaque(dirty, word) == 0) continue;
+
+            long bits = (long) WORDS.getAndSet(dirty, word, 0L);
+            while (bits != 0) {
+                tiles.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a tile changed since it was last drained.
+     * @param tile The tile index.
+     * @return true if the tile is dirty.
+     */
+    public boolean isDirty(int tile) {
+        return ((long) WORDS.getVolatile(dirty, tile >>> 6) & (1L << tile)) != 0;
+    }
+
+    /**
+     * Reports the nodes located in a tile.
+     * @param tile The tile index.
+     * @param nodes Receives the index of every node in the tile.
+     */
+    public void nodesIn(int tile, IntConsumer nodes) {
+        for (int k = tileStart[tile], end = tileStart[tile + 1]; k < end; k++) {
+            nodes.accept(tileNodes[k]);
+        }
+    }
+
+    /**
+     * Gets the tile a node is located in.
+     * @param node The node index.
+     * @return The tile index.
+     */
+    public int tileOf(int node) {
+        return tileOfNode[node];
+    }
+
+    public int getTileCount() {
+        return columns * rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the left edge of a tile in location units.
+     * @param tile The tile index.
+     * @return The smallest x a node in the tile can have.
+     */
+    public long getTileX(int tile) {
+        return originX + (long) (tile % columns) * tileSize;
+    }
+
+    /**
+     * Gets the top edge of a tile in location units.
+     * @param tile The tile index.
+     * @return The smallest y a node in the tile can have.
+     */
+    public long getTileY(int tile) {
+        return originY + (long) (tile / columns) * tileSize;
+    }
+}
@@ -0,0 +1,363 @@
+package fireSimulation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary journal of every state change in a {@link CompactSimulation}:
+ * sensor state transitions and agent creation, movement, cloning and destruction, plus
+ * a full snapshot every {@code snapshotInterval} ticks. Records are appended through a
+ * memory-mapped {@link FileChannel}. A {@link Reader} can seek to any tick by restoring
+ * the nearest earlier snapshot and replaying the records after it.
+ * The mapped file is extended in zero-filled chunks, and every record is written payload
+ * first and type byte last. If the writer dies before {@link #close()} truncates the file,
+ * the journal therefore ends at the first zero type byte, after its last complete record,
+ * and a reader stops there instead of failing.
+ */
+public class EventJournal implements Closeable {
+    /** File magic, "FSJ1". */
+    static final int MAGIC = 0x46534A31;
+    /** Type byte of the unwritten space after the last record. */
+    static final byte END = 0;
+    static final byte TICK = 1;
+    static final byte STATE = 2;
+    static final byte AGENT_CREATED = 3;
+    static final byte AGENT_MOVED = 4;
+    static final byte AGENT_CLONED = 5;
+    static final byte AGENT_DESTROYED = 6;
+    static final byte SNAPSHOT = 7;
+
+    /** Default number of ticks between snapshots. */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    private static final long MAP_CHUNK = 64L << 20;
+
+    private final FileChannel channel;
+    private final int snapshotInterval;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+
+    /**
+     * Creates (or truncates) a journal file.
+     * @param file The journal file.
+     * @param snapshotInterval Ticks between snapshots.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public EventJournal(Path file, int snapshotInterval) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.snapshotInterval = snapshotInterval;
+        map(0, MAP_CHUNK);
+        buffer.putInt(MAGIC);
+    }
+
+    private void map(long start, long size) throws IOException {
+        bufferStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+    }
+
+    /**
+     * Makes sure the mapped region has room for a record, mapping the next region if not.
+     * @param bytes The record size.
+     */
+    private void ensure(long bytes) {
+        if (buffer.remaining() >= bytes) return;
+        try {
+            map(bufferStart + buffer.position(), Math.max(MAP_CHUNK, bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot extend event journal", e);
+        }
+    }
+
+    /**
+     * Starts a record by skipping its type byte, which {@link #commit} writes once the payload is in place.
+     * @param bytes The record size, type byte included.
+     * @return The position of the record's type byte.
+     */
+    private int begin(long bytes) {
+        ensure(bytes);
+        int start = buffer.position();
+        buffer.position(start + 1);
+        return start;
+    }
+
+    private void commit(int start, byte type) {
+        buffer.put(start, type);
+    }
+
+    public void tick(int tick) {
+        int start = begin(5);
+        buffer.putInt(tick);
+        commit(start, TICK);
+    }
+
+    public void stateChanged(int node, byte oldState, byte newState) {
+        int start = begin(6);
+        buffer.putInt(node).put(newState);
+        commit(start, STATE);
+    }
+
+    public void agentCreated(int agentId, int node) {
+        int start = begin(9);
+        buffer.putInt(agentId).putInt(node);
+        commit(start, AGENT_CREATED);
+    }
+
+    public void agentMoved(int agentId, int from, int to) {
+        int start = begin(13);
+        buffer.putInt(agentId).putInt(from).putInt(to);
+        commit(start, AGENT_MOVED);
+    }
+
+    public void agentCloned(int agentId, int parentId, int node) {
+        int start = begin(13);
+        buffer.putInt(agentId).putInt(parentId).putInt(node);
+        commit(start, AGENT_CLONED);
+    }
+
+    public void agentDestroyed(int agentId, int node) {
+        int start = begin(9);
+        buffer.putInt(agentId).putInt(node);
+        commit(start, AGENT_DESTROYED);
+    }
+
+    /**
+     * Writes a snapshot if {@code tick} falls on the snapshot interval.
+     * @param tick The tick that is about to start.
+     * @param graph The graph whose state is recorded.
+     */
+    public void maybeSnapshot(int tick, CompactGraph graph) {
+        if (snapshotInterval > 0 && tick % snapshotInterval == 0) {
+            snapshot(tick, graph);
+        }
+    }
+
+    /**
+     * Writes a full snapshot of every node's state and occupant.
+     * @param tick The tick that is about to start.
+     * @param graph The graph whose state is recorded.
+     */
+    public void snapshot(int tick, CompactGraph graph) {
+        int n = graph.size();
+        int start = begin(9 + 5L * n);
+        buffer.putInt(tick).putInt(n);
+        for (int i = 0; i < n; i++) {
+            buffer.put(graph.getStateCode(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(graph.getOccupant(i));
+        }
+        commit(start, SNAPSHOT);
+    }
+
+    /**
+     * Truncates the file to the written length and closes it.
+     * @throws IOException If the file cannot be truncated or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        long length = bufferStart + buffer.position();
+        buffer.force();
+        buffer = null;
+        channel.truncate(length);
+        channel.close();
+    }
+
+    /**
+     * Receives replayed journal content. Every method does nothing by default.
+     */
+    public interface ReplayListener {
+        default void snapshot(int tick, byte[] states, int[] occupants) { }
+        default void tick(int tick) { }
+        default void stateChanged(int node, byte state) { }
+        default void agentCreated(int agentId, int node) { }
+        default void agentMoved(int agentId, int from, int to) { }
+        default void agentCloned(int agentId, int parentId, int node) { }
+        default void agentDestroyed(int agentId, int node) { }
+    }
+
+    /**
+     * Reads a journal, seeking to any tick without re-running the simulation.
+     */
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final List<long[]> snapshots = new ArrayList<>();
+        private DataInputStream in;
+        private int currentTick = -1;
+
+        /**
+         * Opens a journal and indexes its snapshots.
+         * @param file The journal file.
+         * @throws IOException If the file cannot be read or is not a journal.
+         */
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            openAt(0);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an event journal: " + file);
+            }
+            indexSnapshots();
+        }
+
+        private void openAt(long position) throws IOException {
+            channel.position(position);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        }
+
+        /**
+         * Scans the journal once, recording the tick and file offset of every snapshot.
+         */
+        private void indexSnapshots() throws IOException {
+            long position = 4;
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == END) {
+                        return;
+                    }
+                    if (type == SNAPSHOT) {
+                        int tick = in.readInt();
+                        int n = in.readInt();
+                        snapshots.add(new long[] {tick, position});
+                        skip(5L * n);
+                        position += 9 + 5L * n;
+                    } else {
+                        int size = payloadSize(type);
+                        skip(size);
+                        position += 1 + size;
+                    }
+                }
+            } catch (EOFException e) {
+                // End of journal.
+            }
+        }
+
+        private void skip(long bytes) throws IOException {
+            while (bytes > 0) {
+                int skipped = in.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+                if (skipped <= 0) throw new EOFException();
+                bytes -= skipped;
+            }
+        }
+
+        private static int payloadSize(byte type) throws IOException {
+            switch (type) {
+                case TICK: return 4;
+                case STATE: return 5;
+                case AGENT_CREATED: case AGENT_DESTROYED: return 8;
+                case AGENT_MOVED: case AGENT_CLONED: return 12;
+                default: throw new IOException("Corrupt event journal: unknown record type " + type);
+            }
+        }
+
+        /**
+         * Restores the nearest snapshot at or before {@code tick} and replays up to that tick.
+         * @param tick The tick to seek to.
+         * @param listener Receives the snapshot and every record up to the tick.
+         * @throws IOException If the journal cannot be read or has no snapshot before the tick.
+         */
+        public void seek(int tick, ReplayListener listener) throws IOException {
+            long[] best = null;
+            for (long[] snapshot : snapshots) {
+                if (snapshot[0] <= tick) best = snapshot;
+            }
+            if (best == null) {
+                throw new IOException("No snapshot at or before tick " + tick);
+            }
+            openAt(best[1]);
+            replayUntil(tick, listener);
+        }
+
+        /**
+         * Replays records from the current position until {@code tick} has started.
+         * @param tick The last tick to replay up to (exclusive of its records).
+         * @param listener Receives every record.
+         * @return false if the end of the journal was reached.
+         * @throws IOException If the journal cannot be read.
+         */
+        public boolean replayUntil(int tick, ReplayListener listener) throws IOException {
+            try {
+                while (true) {
+                    in.mark(5);
+                    byte type = in.readByte();
+                    switch (type) {
+                        case END: {
+                            in.reset();
+                            return false;
+                        }
+                        case TICK: {
+                            int next = in.readInt();
+                            if (next >= tick) {
+                                in.reset();
+                                currentTick = tick;
+                                return true;
+                            }
+                            currentTick = next;
+                            listener.tick(next);
+                            break;
+                        }
+                        case SNAPSHOT: {
+                            int snapshotTick = in.readInt();
+                            int n = in.readInt();
+                            byte[] states = new byte[n];
+                            in.readFully(states);
+                            int[] occupants = new int[n];
+                            for (int i = 0; i < n; i++) occupants[i] = in.readInt();
+                            listener.snapshot(snapshotTick, states, occupants);
+                            break;
+                        }
+                        case STATE: listener.stateChanged(in.readInt(), in.readByte()); break;
+                        case AGENT_CREATED: listener.agentCreated(in.readInt(), in.readInt()); break;
+                        case AGENT_MOVED: listener.agentMoved(in.readInt(), in.readInt(), in.readInt()); break;
+                        case AGENT_CLONED: listener.agentCloned(in.readInt(), in.readInt(), in.readInt()); break;
+                        case AGENT_DESTROYED: listener.agentDestroyed(in.readInt(), in.readInt()); break;
+                        default: throw new IOException("Corrupt event journal: unknown record type " + type);
+                    }
+                }
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Replays from the current position at a fixed rate, sleeping between ticks.
+         * @param ticksPerSecond Replay speed; zero or less replays as fast as possible.
+         * @param listener Receives every record.
+         * @throws IOException If the journal cannot be read.
+         * @throws InterruptedException If interrupted while waiting between ticks.
+         */
+        public void play(double ticksPerSecond, ReplayListener listener) throws IOException, InterruptedException {
+            long delayNanos = ticksPerSecond > 0 ? (long) (1_000_000_000L / ticksPerSecond) : 0;
+            int tick = Math.max(currentTick, 0);
+            while (replayUntil(++tick, listener)) {
+                if (delayNanos > 0) {
+                    Thread.sleep(delayNanos / 1_000_000, (int) (delayNanos % 1_000_000));
+                }
+            }
+        }
+
+        /**
+         * Gets the ticks of every snapshot in the journal.
+         * @return The snapshot ticks in file order.
+         */
+        public int[] getSnapshotTicks() {
+            int[] ticks = new int[snapshots.size()];
+            for (int i = 0; i < ticks.length; i++) ticks[i] = (int) snapshots.get(i)[0];
+            return ticks;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
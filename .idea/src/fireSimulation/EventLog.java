@@ -0,0 +1,272 @@
+package fireSimulation;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Low-overhead event logging for agent and sensor hot paths.
+ * Producers enqueue typed events on a lock-free queue and return immediately; a single
+ * background thread formats them and writes them in batches to the console or a file.
+ * Events below the configured level are rejected by one volatile read, before any event
+ * object or string is built. The writer parks while the queue is empty and the first event
+ * after that wakes it, so an idle log costs no CPU. The bound on waiting events is checked
+ * against a striped counter and is approximate: concurrent producers may overshoot it slightly.
+ * The level and target are read from the system properties {@code fireSimulation.log.level}
+ * (DEBUG, INFO, WARN, ERROR or OFF; default INFO) and {@code fireSimulation.log.file}
+ * (default: the console).
+ */
+public final class EventLog {
+    /** Maximum number of events waiting to be written; further events are dropped and counted. */
+    private static final int MAX_PENDING = 1 << 16;
+    /** Maximum number of events written before the output is flushed. */
+    private static final int BATCH_SIZE = 1024;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /**
+     * Severity of an event.
+     */
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    /**
+     * Kind of event; the text is the message shown after the subject, with {} replaced by the location.
+     */
+    public enum EventType {
+        AGENT_PRIORITIZING_YELLOW("prioritizing yellow node at {}"),
+        AGENT_MOVING_BLUE("moving to blue node at {}"),
+        AGENT_MOVED("successfully moved to {}"),
+        AGENT_MOVE_ABORTED("move to {} aborted (conditions changed)."),
+        AGENT_NO_NEIGHBORS("at {} has no available neighbors to move to."),
+        SENSOR_STATE_CHANGED("changed state at {}"),
+        CLONE_REJECTED("clone onto {} refused by admission control."),
+        CLONE_ADMISSION_SATURATED("clone refused by admission control ({}); refusals are counted in the metrics."),
+        APPLICATION_SHUTDOWN("Application shutting down.");
+
+        private final String text;
+
+        EventType(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Formats this type's message for a location.
+         * @param location The location, may be null.
+         * @return The message text.
+         */
+        public String format(Object location) {
+            return text.replace("{}", String.valueOf(location));
+        }
+    }
+
+    /**
+     * A single logged event.
+     */
+    public static final class Event {
+        private final long timestamp;
+        private final Level level;
+        private final EventType type;
+        private final int agentId;
+        private final Object location;
+
+        Event(long timestamp, Level level, EventType type, int agentId, Object location) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.type = type;
+            this.agentId = agentId;
+            this.location = location;
+        }
+
+        public long getTimestamp() { return timestamp; }
+        public Level getLevel() { return level; }
+        public EventType getType() { return type; }
+        /** @return The agent ID, or -1 if the event does not concern an agent. */
+        public int getAgentId() { return agentId; }
+        public Object getLocation() { return location; }
+
+        /**
+         * Formats this event as one line of text.
+         * @return The formatted line.
+         */
+        public String format() {
+            StringBuilder line = new StringBuilder(64)
+                    .append(TIME_FORMAT.format(Instant.ofEpochMilli(timestamp)))
+                    .append(' ').append(level).append(' ');
+            if (agentId >= 0) {
+                line.append("Agent ").append(agentId).append(' ');
+            }
+            return line.append(type.format(location)).toString();
+        }
+    }
+
+    private static volatile Level level = parseLevel(System.getProperty("fireSimulation.log.level"));
+    private static final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private static final LongAdder pending = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+    /** Set by the writer before it parks on an empty queue; cleared by the producer that wakes it. */
+    private static final AtomicBoolean writerIdle = new AtomicBoolean();
+    private static final PrintWriter out = openOutput(System.getProperty("fireSimulation.log.file"));
+    private static volatile Thread writer;
+    private static long reportedDrops = 0;
+
+    private EventLog() {
+    }
+
+    /**
+     * Checks whether events of a level are currently recorded.
+     * @param eventLevel The level to check.
+     * @return true if such events are recorded.
+     */
+    public static boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Changes the minimum level recorded.
+     * @param newLevel The new minimum level.
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static void debug(EventType type, int agentId, Object location) {
+        log(Level.DEBUG, type, agentId, location);
+    }
+
+    public static void info(EventType type, int agentId, Object location) {
+        log(Level.INFO, type, agentId, location);
+    }
+
+    public static void warn(EventType type, int agentId, Object location) {
+        log(Level.WARN, type, agentId, location);
+    }
+
+    /**
+     * Records an event if its level is enabled. Never blocks.
+     * @param eventLevel The event's level.
+     * @param type The kind of event.
+     * @param agentId The agent concerned, or -1.
+     * @param location The location concerned, may be null.
+     */
+    public static void log(Level eventLevel, EventType type, int agentId, Object location) {
+        if (!isEnabled(eventLevel)) return;
+
+        if (pending.sum() >= MAX_PENDING) {
+            dropped.increment();
+            return;
+        }
+        pending.increment();
+        queue.offer(new Event(System.currentTimeMillis(), eventLevel, type, agentId, location));
+        Thread thread = writer;
+        if (thread == null) {
+            startWriter();
+        } else if (writerIdle.get() && writerIdle.compareAndSet(true, false)) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the writer fell behind.
+     * @return The dropped event count.
+     */
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of events waiting to be written.
+     * @return The approximate queue length.
+     */
+    static long getPendingCount() {
+        return pending.sum();
+    }
+
+    /**
+     * Writes every queued event and flushes the output. Used on shutdown.
+     */
+    public static void flush() {
+        drain();
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+
+        Thread thread = new Thread(EventLog::writeLoop, "event-log-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            if (drain() > 0) continue;
+
+            // Announce the park before the last look at the queue, so a producer either
+            // sees the announcement and unparks this thread or its event is seen here.
+            writerIdle.set(true);
+            if (queue.isEmpty()) {
+                LockSupport.park(EventLog.class);
+            }
+            writerIdle.set(false);
+        }
+    }
+
+    /**
+     * Writes queued events in batches.
+     * @return The number of events written.
+     */
+    private static synchronized int drain() {
+        int written = 0;
+        Event event;
+        while ((event = queue.poll()) != null) {
+            pending.decrement();
+            out.println(event.format());
+            if (++written % BATCH_SIZE == 0) {
+                out.flush();
+            }
+        }
+        long totalDrops = dropped.sum();
+        if (totalDrops > reportedDrops) {
+            out.println("[event log dropped " + (totalDrops - reportedDrops) + " events]");
+            reportedDrops = totalDrops;
+            written++;
+        }
+        if (written > 0) {
+            out.flush();
+        }
+        return written;
+    }
+
+    private static Level parseLevel(String value) {
+        if (value != null) {
+            try {
+                return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown log level '" + value + "', using INFO.");
+            }
+        }
+        return Level.INFO;
+    }
+
+    private static PrintWriter openOutput(String file) {
+        if (file != null && !file.isEmpty()) {
+            try {
+                return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), false);
+            } catch (IOException e) {
+                System.err.println("Cannot open log file " + file + ", logging to the console: " + e.getMessage());
+            }
+        }
+        return new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), false);
+    }
+}
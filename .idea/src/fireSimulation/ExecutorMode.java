@@ -0,0 +1,43 @@
+package fireSimulation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Thread model used for sensor and agent tasks.
+ * Agents spend almost all of their life sleeping between steps, so virtual threads
+ * let very large clone bursts run without one OS thread per agent.
+ */
+public enum ExecutorMode {
+    /** One virtual thread per submitted task. */
+    VIRTUAL,
+    /** Cached pool of platform threads (the original behaviour). */
+    PLATFORM;
+
+    /**
+     * Creates a new executor for this mode.
+     * @return The executor service to hand to the simulation model.
+     */
+    public ExecutorService createExecutor() {
+        if (this == PLATFORM) {
+            return Executors.newCachedThreadPool();
+        }
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Parses a mode name, ignoring case.
+     * @param value The mode name, may be null.
+     * @return The matching mode, or VIRTUAL if the value is null or unknown.
+     */
+    public static ExecutorMode fromString(String value) {
+        if (value != null) {
+            for (ExecutorMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return VIRTUAL;
+    }
+}
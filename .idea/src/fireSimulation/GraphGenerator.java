@@ -0,0 +1,280 @@
+package fireSimulation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line generator of large sensor network configurations for scale testing.
+ * Usage: GraphGenerator [--topology=grid|geometric|smallworld] [--nodes=N] [--seed=S]
+ *                       [--fires=F] [--radius=R] [--degree=K] [--rewire=P] --out=network.txt
+ * Nodes are generated in blocks on every core and written in order as soon as each block
+ * is ready, with only a few blocks in memory at a time. Every node's position and edges are
+ * a pure function of the seed and its index, so the output does not depend on the number
+ * of cores and no block needs to see another block's data.
+ */
+public class GraphGenerator {
+    /** Nodes generated by one task. */
+    private static final int BLOCK_SIZE = 1 << 16;
+    /** Side of the cell holding one node in a geometric network. */
+    private static final int CELL_SIZE = 10;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Network shapes the generator can produce.
+     */
+    public enum Topology {
+        /** Square lattice; every node is linked to its right and lower neighbor. */
+        GRID,
+        /** Nodes jittered inside their own grid cell, linked to every node within a radius. */
+        GEOMETRIC,
+        /** Watts-Strogatz ring lattice whose edges are rewired at random with some probability. */
+        SMALLWORLD
+    }
+
+    private Topology topology = Topology.GRID;
+    private long nodes = 1_000_000;
+    private long seed = 1;
+    private int fires = 1;
+    private double radius = 1.5 * CELL_SIZE;
+    private int degree = 4;
+    private double rewire = 0.1;
+    private String outputFile;
+    private int width;
+
+    /**
+     * Generates the network described by the command-line arguments.
+     * @param args The options.
+     */
+    public static void main(String[] args) {
+        CommandLine.run(args, "GraphGenerator [--topology=grid|geometric|smallworld] [--nodes=N] [--seed=S] "
+                + "[--fires=F] [--radius=R] [--degree=K] [--rewire=P] --out=network.txt", "Generation failed", arguments -> {
+            GraphGenerator generator = new GraphGenerator();
+            generator.parseArguments(arguments);
+            long start = System.currentTimeMillis();
+            long edges = generator.generate();
+            System.out.println("Wrote " + generator.nodes + " nodes and " + edges + " edges to "
+                    + generator.outputFile + " in " + (System.currentTimeMillis() - start) + " ms");
+        });
+    }
+
+    /**
+     * Parses the options.
+     * @param args The command-line arguments.
+     */
+    void parseArguments(String[] args) {
+        CommandLine line = CommandLine.parse(args, "topology", "nodes", "seed", "fires", "radius", "degree", "rewire", "out");
+        if (!line.getFiles().isEmpty()) {
+            throw new IllegalArgumentException("Unexpected argument " + line.getFiles().get(0));
+        }
+        String shape = line.get("topology", topology.name());
+        try {
+            topology = Topology.valueOf(shape.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown topology " + shape);
+        }
+        nodes = line.getLong("nodes", nodes);
+        seed = line.getLong("seed", seed);
+        fires = line.getInt("fires", fires);
+        radius = line.getDouble("radius", radius);
+        degree = line.getInt("degree", degree);
+        rewire = line.getDouble("rewire", rewire);
+        outputFile = line.get("out", outputFile);
+        if (outputFile == null) {
+            throw new IllegalArgumentException("No output file given.");
+        }
+        if (nodes < 2 || fires < 0 || fires > nodes) {
+            throw new IllegalArgumentException("Nodes must be at least 2 and fires between 0 and the node count.");
+        }
+        // A rewired link skips the node's own lattice neighborhood, so at least one other node must be left.
+        if (degree < 2 || degree % 2 != 0 || degree >= nodes - 1) {
+            throw new IllegalArgumentException("Degree must be even, at least 2 and below the node count minus one.");
+        }
+        if (radius <= 0 || rewire < 0 || rewire > 1) {
+            throw new IllegalArgumentException("Radius must be positive and rewire between 0 and 1.");
+        }
+        width = (int) Math.ceil(Math.sqrt(nodes));
+        if ((long) width * (topology == Topology.GEOMETRIC ? CELL_SIZE : 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many nodes for int coordinates.");
+        }
+    }
+
+    /**
+     * Generates every block in parallel and streams them to the output file in order.
+     * @return The number of edges written.
+     * @throws Exception If the file cannot be written or a block fails.
+     */
+    long generate() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(cores);
+        long blocks = (nodes + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long edges = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFile)), 1 << 20)) {
+            Deque<Future<Block>> window = new ArrayDeque<>();
+            long next = 0;
+            while (next < blocks || !window.isEmpty()) {
+                // Keep a bounded number of blocks in flight so memory stays flat at any size.
+                while (next < blocks && window.size() < 2 * cores) {
+                    long first = next * BLOCK_SIZE;
+                    long last = Math.min(nodes, first + BLOCK_SIZE);
+                    window.add(pool.submit(() -> generateBlock(first, last)));
+                    next++;
+                }
+                Block block;
+                try {
+                    block = window.poll().get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Block generation failed: " + e.getCause(), e.getCause());
+                }
+                out.write(block.text);
+                edges += block.edges;
+            }
+            out.write(placements().getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            pool.shutdownNow();
+        }
+        return edges;
+    }
+
+    /**
+     * Generates the node and edge lines of nodes [first, last).
+     */
+    private Block generateBlock(long first, long last) {
+        StringBuilder text = new StringBuilder((int) (last - first) * 48);
+        long edges = 0;
+        for (long i = first; i < last; i++) {
+            text.append("node ").append(x(i)).append(' ').append(y(i)).append('\n');
+        }
+        for (long i = first; i < last; i++) {
+            switch (topology) {
+                case GRID: edges += gridEdges(i, text); break;
+                case GEOMETRIC: edges += geometricEdges(i, text); break;
+                default: edges += smallWorldEdges(i, text); break;
+            }
+        }
+        return new Block(text.toString().getBytes(StandardCharsets.US_ASCII), edges);
+    }
+
+    private int gridEdges(long i, StringBuilder text) {
+        int written = 0;
+        if ((i + 1) % width != 0 && i + 1 < nodes) {
+            edge(text, i, i + 1);
+            written++;
+        }
+        if (i + width < nodes) {
+            edge(text, i, i + width);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Links a node to every later node within the radius; only nearby cells can qualify.
+     */
+    private int geometricEdges(long i, StringBuilder text) {
+        int reach = (int) Math.ceil(radius / CELL_SIZE);
+        long column = i % width;
+        long row = i / width;
+        double radiusSquared = radius * radius;
+        int written = 0;
+        for (long r = row; r <= row + reach; r++) {
+            long fromColumn = r == row ? column + 1 : Math.max(0, column - reach);
+            for (long c = fromColumn; c <= Math.min(width - 1, column + reach); c++) {
+                long j = r * width + c;
+                if (j >= nodes) break;
+
+                double dx = x(i) - x(j);
+                double dy = y(i) - y(j);
+                if (dx * dx + dy * dy <= radiusSquared) {
+                    edge(text, i, j);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Links a node to its next degree/2 ring neighbors, rewiring each link with the rewire probability.
+     */
+    private int smallWorldEdges(long i, StringBuilder text) {
+        int half = degree / 2;
+        int written = 0;
+        for (int k = 1; k <= half; k++) {
+            long target = (i + k) % nodes;
+            long draw = mix(seed ^ mix(i * half + k));
+            if ((draw >>> 11) * 0x1.0p-53 < rewire) {
+                // Pick a far node; skipping the node's own lattice neighborhood avoids self-loops and most duplicates.
+                long offset = half + 1 + Math.floorMod(mix(draw), nodes - 2L * half - 1);
+                target = (i + offset) % nodes;
+            }
+            edge(text, i, target);
+            written++;
+        }
+        return written;
+    }
+
+    private void edge(StringBuilder text, long a, long b) {
+        text.append("edge ").append(x(a)).append(' ').append(y(a)).append(' ')
+                .append(x(b)).append(' ').append(y(b)).append('\n');
+    }
+
+    /**
+     * Places the base station at the center node and the fires at random nodes.
+     */
+    private String placements() {
+        StringBuilder text = new StringBuilder();
+        long center = Math.min(nodes - 1, (long) (width / 2) * width + width / 2);
+        text.append("station ").append(x(center)).append(' ').append(y(center)).append('\n');
+        for (int f = 0; f < fires; f++) {
+            long node = Math.floorMod(mix(seed + GOLDEN_GAMMA * (f + 1)), nodes);
+            text.append("fire ").append(x(node)).append(' ').append(y(node)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private int x(long i) {
+        int column = (int) (i % width);
+        if (topology != Topology.GEOMETRIC) return column;
+        return column * CELL_SIZE + (int) Math.floorMod(mix(seed ^ (2 * i)), (long) CELL_SIZE);
+    }
+
+    private int y(long i) {
+        int row = (int) (i / width);
+        if (topology != Topology.GEOMETRIC) return row;
+        return row * CELL_SIZE + (int) Math.floorMod(mix(seed ^ (2 * i + 1)), (long) CELL_SIZE);
+    }
+
+    /**
+     * SplitMix64 finalizer: a fast, well-distributed hash used as a stateless random source.
+     */
+    private static long mix(long z) {
+        z += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Text of one generated block.
+     */
+    private static final class Block {
+        private final byte[] text;
+        private final long edges;
+
+        Block(byte[] text, long edges) {
+            this.text = text;
+            this.edges = edges;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package fireSimulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Fast loaders for {@link CompactGraph}.
+ * The text loader memory-maps a node/edge/station/fire configuration file, splits it into
+ * chunks at line boundaries and parses the chunks in parallel straight into primitive
+ * buffers, reporting progress as it goes. The binary format stores the finished CSR
+ * arrays, so a precompiled graph loads with a few bulk copies and no parsing at all.
+ */
+public final class GraphLoader {
+    /** Bytes of text parsed by one task. */
+    private static final long CHUNK_SIZE = 16L << 20;
+    /** Longest line accepted; a chunk maps this far past its end to finish its last line. */
+    private static final int MAX_LINE = 4096;
+    /** File magic of the binary format, "FSG2". */
+    private static final int BINARY_MAGIC = 0x46534732;
+    private static final int BINARY_HEADER = 20;
+
+    private GraphLoader() {
+    }
+
+    /**
+     * Loads a text configuration, parsing it in parallel on the common fork-join pool.
+     * Only the first station line is used; every fire line starts a fire.
+     * @param file The configuration file.
+     * @param progress Receives the fraction of the file parsed, from 0 to 1; may be null.
+     * @return The loaded graph.
+     * @throws IOException If the file cannot be read, is malformed or references an unknown node.
+     */
+    public static CompactGraph load(Path file, DoubleConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            AtomicLong parsed = new AtomicLong();
+            List<Future<Chunk>> futures = new ArrayList<>();
+            for (long start = 0; start < size; start += CHUNK_SIZE) {
+                long chunkStart = start;
+                long chunkEnd = Math.min(size, start + CHUNK_SIZE);
+                futures.add(ForkJoinPool.commonPool().submit(() -> {
+                    Chunk chunk = parseChunk(channel, size, chunkStart, chunkEnd);
+                    long done = parsed.addAndGet(chunkEnd - chunkStart);
+                    if (progress != null) progress.accept((double) done / size);
+                    return chunk;
+                }));
+            }
+
+            CompactGraph.LongBuffer nodes = new CompactGraph.LongBuffer();
+            CompactGraph.LongBuffer edges = new CompactGraph.LongBuffer();
+            CompactGraph.LongBuffer fires = new CompactGraph.LongBuffer();
+            Long station = null;
+            for (Future<Chunk> future : futures) {
+                Chunk chunk;
+                try {
+                    chunk = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while loading " + file, e);
+                } catch (ExecutionException e) {
+                    // The fork-join pool wraps checked exceptions; report the parse error itself.
+                    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                        if (cause instanceof IOException) throw (IOException) cause;
+                    }
+                    throw new IOException("Cannot load " + file + ": " + e.getCause(), e.getCause());
+                }
+                nodes.addAll(chunk.nodes);
+                edges.addAll(chunk.edges);
+                if (station == null && chunk.hasStation) station = chunk.station;
+                fires.addAll(chunk.fires);
+            }
+            if (progress != null && size == 0) progress.accept(1.0);
+            return CompactGraph.build(nodes, edges, station, fires);
+        }
+    }
+
+    /**
+     * Parses every line whose first byte lies in [start, end).
+     */
+    private static Chunk parseChunk(FileChannel channel, long size, long start, long end) throws IOException {
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_LINE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        Parser parser = new Parser(buffer, mapStart);
+
+        // A chunk that does not start right after a newline begins mid-line; that line belongs to the previous chunk.
+        if (start > 0 && buffer.get(0) != '\n') {
+            parser.skipLine();
+        } else if (start > 0) {
+            parser.pos = 1;
+        }
+
+        Chunk chunk = new Chunk();
+        int limit = (int) (end - mapStart);
+        while (parser.pos < limit) {
+            parser.parseLine(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Writes a graph in the binary precompiled format.
+     * @param graph The graph to write.
+     * @param file The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinary(CompactGraph graph, Path file) throws IOException {
+        long[] locations = graph.locationArray();
+        int[] offsets = graph.offsetArray();
+        int[] adjacency = graph.adjacencyArray();
+        int[] fires = graph.getFireStarts();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, BINARY_HEADER);
+            header.putInt(BINARY_MAGIC).putInt(locations.length).putInt(adjacency.length)
+                    .putInt(graph.getStation()).putInt(fires.length);
+            long position = BINARY_HEADER;
+            channel.map(FileChannel.MapMode.READ_WRITE, position, 8L * locations.length).asLongBuffer().put(locations);
+            position += 8L * locations.length;
+            channel.map(FileChannel.MapMode.READ_WRITE, position, 4L * offsets.length).asIntBuffer().put(offsets);
+            position += 4L * offsets.length;
+            channel.map(FileChannel.MapMode.READ_WRITE, position, 4L * adjacency.length).asIntBuffer().put(adjacency);
+            position += 4L * adjacency.length;
+            if (fires.length > 0) {
+                channel.map(FileChannel.MapMode.READ_WRITE, position, 4L * fires.length).asIntBuffer().put(fires);
+            }
+        }
+    }
+
+    /**
+     * Loads a graph written by {@link #writeBinary(CompactGraph, Path)}.
+     * @param file The binary graph file.
+     * @return The loaded graph.
+     * @throws IOException If the file cannot be read or is not a binary graph.
+     */
+    public static CompactGraph loadBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < BINARY_HEADER) {
+                throw new IOException("Not a binary graph: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BINARY_HEADER);
+            if (header.getInt() != BINARY_MAGIC) {
+                throw new IOException("Not a binary graph: " + file);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            int station = header.getInt();
+            int fireCount = header.getInt();
+            if (channel.size() != BINARY_HEADER + 8L * n + 4L * (n + 1) + 4L * m + 4L * fireCount) {
+                throw new IOException("Truncated binary graph: " + file);
+            }
+
+            long[] locations = new long[n];
+            int[] offsets = new int[n + 1];
+            int[] adjacency = new int[m];
+            long position = BINARY_HEADER;
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * n).asLongBuffer().get(locations);
+            position += 8L * n;
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * (n + 1)).asIntBuffer().get(offsets);
+            position += 4L * (n + 1);
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * m).asIntBuffer().get(adjacency);
+            position += 4L * m;
+            int[] fires = new int[fireCount];
+            if (fireCount > 0) {
+                channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * fireCount).asIntBuffer().get(fires);
+            }
+            return new CompactGraph(locations, offsets, adjacency, station, fires);
+        }
+    }
+
+    /**
+     * Result of parsing one chunk.
+     */
+    private static final class Chunk {
+        private final CompactGraph.LongBuffer nodes = new CompactGraph.LongBuffer();
+        private final CompactGraph.LongBuffer edges = new CompactGraph.LongBuffer();
+        private boolean hasStation = false;
+        private long station;
+        private final CompactGraph.LongBuffer fires = new CompactGraph.LongBuffer();
+    }
+
+    /**
+     * Allocation-free tokenizer over a mapped region of the configuration file.
+     */
+    private static final class Parser {
+        private final ByteBuffer buffer;
+        private final long fileOffset;
+        private int pos = 0;
+
+        Parser(ByteBuffer buffer, long fileOffset) {
+            this.buffer = buffer;
+            this.fileOffset = fileOffset;
+        }
+
+        void parseLine(Chunk chunk) throws IOException {
+            long lineStart = fileOffset + pos;
+            skipSpaces();
+            if (atLineEnd()) {
+                skipLine();
+                return;
+            }
+            int wordStart = pos;
+            while (pos < buffer.limit() && buffer.get(pos) > ' ') pos++;
+            int length = pos - wordStart;
+
+            if (matches(wordStart, length, "node")) {
+                chunk.nodes.add(CompactGraph.pack(nextInt(lineStart), nextInt(lineStart)));
+            } else if (matches(wordStart, length, "edge")) {
+                chunk.edges.add(CompactGraph.pack(nextInt(lineStart), nextInt(lineStart)));
+                chunk.edges.add(CompactGraph.pack(nextInt(lineStart), nextInt(lineStart)));
+            } else if (matches(wordStart, length, "station")) {
+                long key = CompactGraph.pack(nextInt(lineStart), nextInt(lineStart));
+                if (!chunk.hasStation) {
+                    chunk.station = key;
+                    chunk.hasStation = true;
+                }
+            } else if (matches(wordStart, length, "fire")) {
+                chunk.fires.add(CompactGraph.pack(nextInt(lineStart), nextInt(lineStart)));
+            }
+            skipLine();
+        }
+
+        private boolean matches(int start, int length, String word) {
+            if (length != word.length()) return false;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(start + i) != word.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private int nextInt(long lineStart) throws IOException {
+            skipSpaces();
+            boolean negative = false;
+            if (pos < buffer.limit() && buffer.get(pos) == '-') {
+                negative = true;
+                pos++;
+            }
+            int digitsStart = pos;
+            long value = 0;
+            while (pos < buffer.limit()) {
+                byte b = buffer.get(pos);
+                if (b < '0' || b > '9') break;
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE + 1L) break;
+                pos++;
+            }
+            if (pos == digitsStart || (pos < buffer.limit() && buffer.get(pos) > ' ')
+                    || value > (negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE)) {
+                throw new IOException("Malformed line at byte " + lineStart);
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        private void skipSpaces() {
+            while (pos < buffer.limit()) {
+                byte b = buffer.get(pos);
+                if (b != ' ' && b != '\t' && b != '\r') break;
+                pos++;
+            }
+        }
+
+        private boolean atLineEnd() {
+            return pos >= buffer.limit() || buffer.get(pos) == '\n';
+        }
+
+        void skipLine() throws IOException {
+            int start = pos;
+            while (pos < buffer.limit() && buffer.get(pos) != '\n') pos++;
+            if (pos >= buffer.limit() && pos - start >= MAX_LINE) {
+                throw new IOException("Line longer than " + MAX_LINE + " bytes at byte " + (fileOffset + start));
+            }
+            pos++;
+        }
+    }
+}
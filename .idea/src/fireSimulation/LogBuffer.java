@@ -0,0 +1,197 @@
+package fireSimulation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only ring buffer of base station log entries with a bounded retention.
+ * Every appended entry gets a monotonically increasing sequence number, so readers can
+ * ask for just the entries newer than the last one they have seen. Once the buffer is
+ * full the oldest entries are overwritten. It is filled by {@link LogPanel} from the model's
+ * log, so its retention bounds the panel's view, not the log the model keeps.
+ * Entries are also indexed by agent ID, location and {@link ReasonType} as they are
+ * appended, so filtered views cost O(matching entries) instead of a scan of the whole log.
+ */
+public class LogBuffer {
+    /**
+     * Coarse category of a log entry's reason text.
+     */
+    public enum ReasonType {
+        CREATED, CLONED, DESTROYED, OTHER;
+
+        /**
+         * Classifies a reason string.
+         * @param reason The reason text of a log entry.
+         * @return The reason's category.
+         */
+        public static ReasonType of(String reason) {
+            if (reason == null) return OTHER;
+            if (reason.startsWith("Agent created")) return CREATED;
+            if (reason.startsWith("Cloned")) return CLONED;
+            String lower = reason.toLowerCase(Locale.ROOT);
+            if (lower.contains("destroy") || lower.contains("died") || lower.contains("burn")) return DESTROYED;
+            return OTHER;
+        }
+    }
+
+    private final SimulationModel.LogEntry[] entries;
+    private final SequenceIndex agentIndex = new SequenceIndex();
+    private final SequenceIndex locationIndex = new SequenceIndex();
+    private final SequenceIndex reasonIndex = new SequenceIndex();
+    private long nextSequence = 0;
+
+    /**
+     * Constructs an empty buffer.
+     * @param capacity The maximum number of entries retained.
+     */
+    public LogBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Log retention must be positive: " + capacity);
+        }
+        this.entries = new SimulationModel.LogEntry[capacity];
+    }
+
+    /**
+     * Appends an entry, evicting the oldest one if the buffer is full.
+     * @param entry The log entry.
+     * @return The sequence number assigned to the entry.
+     */
+    public synchronized long append(SimulationModel.LogEntry entry) {
+        long sequence = nextSequence++;
+        entries[(int) (sequence % entries.length)] = entry;
+        agentIndex.add(entry.getAgentId(), sequence);
+        locationIndex.add(locationKey(entry).hashCode(), sequence);
+        reasonIndex.add(ReasonType.of(entry.getReason()).ordinal(), sequence);
+
+        // Once per wrap of the ring, drop index entries that point at overwritten slots.
+        if (nextSequence > entries.length && nextSequence % entries.length == 0) {
+            long first = getFirstSequence();
+            agentIndex.evictBefore(first);
+            locationIndex.evictBefore(first);
+            reasonIndex.evictBefore(first);
+        }
+        return sequence;
+    }
+
+    /**
+     * Gets the sequence number the next appended entry will receive.
+     * @return The next sequence number.
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Gets the sequence number of the oldest entry still retained.
+     * @return The first retained sequence number.
+     */
+    public synchronized long getFirstSequence() {
+        return Math.max(0, nextSequence - entries.length);
+    }
+
+    /**
+     * Gets the entry with the given sequence number.
+     * @param sequence The sequence number.
+     * @return The entry, or null if it was evicted or not appended yet.
+     */
+    public synchronized SimulationModel.LogEntry get(long sequence) {
+        if (sequence < getFirstSequence() || sequence >= nextSequence) {
+            return null;
+        }
+        return entries[(int) (sequence % entries.length)];
+    }
+
+    /**
+     * Copies every retained entry with a sequence number of at least {@code fromSequence}.
+     * @param fromSequence The first sequence number wanted.
+     * @param out The list the entries are appended to, oldest first.
+     * @return The sequence number to pass on the next call.
+     */
+    public synchronized long copySince(long fromSequence, List<SimulationModel.LogEntry> out) {
+        for (long sequence = Math.max(fromSequence, getFirstSequence()); sequence < nextSequence; sequence++) {
+            out.add(entries[(int) (sequence % entries.length)]);
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Copies the retained entries of one agent with a sequence number of at least {@code fromSequence}.
+     * @param agentId The agent's unique identifier.
+     * @param fromSequence The first sequence number wanted.
+     * @param out The list the entries are appended to, oldest first.
+     * @return The sequence number to pass on the next call.
+     */
+    public synchronized long copyAgentEntriesSince(int agentId, long fromSequence, List<SimulationModel.LogEntry> out) {
+        SequenceIndex.LongList matches = new SequenceIndex.LongList();
+        agentIndex.copySince(agentId, Math.max(fromSequence, getFirstSequence()), matches);
+        for (int i = 0; i < matches.size(); i++) {
+            out.add(entries[(int) (matches.get(i) % entries.length)]);
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Copies the retained entries logged at a location with a sequence number of at least {@code fromSequence}.
+     * @param location The location, as displayed in the log table.
+     * @param fromSequence The first sequence number wanted.
+     * @param out The list the entries are appended to, oldest first.
+     * @return The sequence number to pass on the next call.
+     */
+    public synchronized long copyLocationEntriesSince(String location, long fromSequence, List<SimulationModel.LogEntry> out) {
+        SequenceIndex.LongList matches = new SequenceIndex.LongList();
+        locationIndex.copySince(location.hashCode(), Math.max(fromSequence, getFirstSequence()), matches);
+        for (int i = 0; i < matches.size(); i++) {
+            SimulationModel.LogEntry entry = entries[(int) (matches.get(i) % entries.length)];
+            // Different locations may share a hash code.
+            if (location.equals(locationKey(entry))) {
+                out.add(entry);
+            }
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Copies the retained entries of one reason type with a sequence number of at least {@code fromSequence}.
+     * @param type The reason type.
+     * @param fromSequence The first sequence number wanted.
+     * @param out The list the entries are appended to, oldest first.
+     * @return The sequence number to pass on the next call.
+     */
+    public synchronized long copyReasonEntriesSince(ReasonType type, long fromSequence, List<SimulationModel.LogEntry> out) {
+        SequenceIndex.LongList matches = new SequenceIndex.LongList();
+        reasonIndex.copySince(type.ordinal(), Math.max(fromSequence, getFirstSequence()), matches);
+        for (int i = 0; i < matches.size(); i++) {
+            out.add(entries[(int) (matches.get(i) % entries.length)]);
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Gets the key an entry's location is indexed under.
+     * @param entry The log entry.
+     * @return The location as displayed in the log table.
+     */
+    static String locationKey(SimulationModel.LogEntry entry) {
+        return String.valueOf(entry.getLocation());
+    }
+
+    /**
+     * Gets the maximum number of entries retained.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Removes all entries and restarts sequence numbering.
+     */
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        agentIndex.clear();
+        locationIndex.clear();
+        reasonIndex.clear();
+        nextSequence = 0;
+    }
+}
@@ -16,35 +16,79 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Displays the base station log and simulation statistics using JavaFX components.
- * Supports filtering log entries by agent ID.
+ * Supports filtering log entries by agent ID, location or reason type.
+ * New log entries are pulled incrementally into a bounded {@link LogBuffer}; each refresh
+ * only wraps and appends the rows that arrived since the previous one.
+ * Retention only bounds what this panel keeps: the model's own log still holds every entry
+ * until the model is reset. The buffer references the model's entries instead of copying them.
  */
 public class LogPanel {
+    /** Default number of log entries this panel retains for display and filtering; the model keeps its whole log. */
+    public static final int DEFAULT_LOG_RETENTION = 50_000;
+    /** Directory receiving the log of every run that is reset, set by {@code fireSimulation.log.archiveDir}. */
+    private static final Path ARCHIVE_DIR = Paths.get(System.getProperty("fireSimulation.log.archiveDir", "logs"));
+    private static final DateTimeFormatter ARCHIVE_NAME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+    /** Longest time {@link #finishArchives()} waits for pending archives on exit. */
+    private static final long ARCHIVE_TIMEOUT_SECONDS = 30;
+    /** Writes archives one at a time, in the order the runs ended. */
+    private static final ExecutorService ARCHIVER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "log-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final SimulationModel model;
     private final TableView<LogEntryWrapper> logTable;
     private final ObservableList<LogEntryWrapper> logData = FXCollections.observableArrayList();
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss");
+    private final LogBuffer logBuffer;
+    private int modelLogPosition = 0;
+    private long displayedSequence = 0;
     private Label activeAgentsValue;
     private Label burnedSensorsValue;
     private Label totalAgentsValue;
     private Label activeAreasValue;
     private TextField filterField;
+    private ChoiceBox<String> filterModeBox;
     private final BorderPane mainPanel;
     private Timeline statsTimeline;
     private int currentFilterAgentId = -1;
+    private String currentFilterLocation = null;
+    private LogBuffer.ReasonType currentFilterReason = null;
 
     /**
      * Constructs a new log panel using JavaFX.
      * @param model The simulation model to monitor.
      */
     public LogPanel(SimulationModel model) {
+        this(model, DEFAULT_LOG_RETENTION);
+    }
+
+    /**
+     * Constructs a new log panel with a custom log retention.
+     * @param model The simulation model to monitor.
+     * @param logRetention The maximum number of log entries kept for display; does not bound the model's log.
+     */
+    public LogPanel(SimulationModel model, int logRetention) {
         this.model = model;
+        this.logBuffer = new LogBuffer(logRetention);
 
         mainPanel = new BorderPane();
         mainPanel.setPadding(new Insets(5));
@@ -106,7 +150,7 @@ public class LogPanel {
     }
 
     /**
-     * Creates the filter panel (HBox) for filtering log entries by agent ID.
+     * Creates the filter panel (HBox) for filtering log entries by agent ID, location or reason type.
      * @return The configured filter panel Node.
      */
     private Node createFilterPanel() {
@@ -115,42 +159,69 @@ public class LogPanel {
         panel.setStyle("-fx-border-color: lightgray; -fx-border-width: 1; -fx-padding: 5; -fx-border-radius: 5;");
 
 
-        Label filterLabel = new Label("Agent ID:");
+        filterModeBox = new ChoiceBox<>(FXCollections.observableArrayList("Agent ID", "Location", "Reason"));
+        filterModeBox.setValue("Agent ID");
         filterField = new TextField();
         filterField.setPromptText("Enter ID");
         filterField.setPrefWidth(100);
+        filterModeBox.setOnAction(e -> {
+            switch (filterModeBox.getValue()) {
+                case "Location": filterField.setPromptText("As shown in table"); break;
+                case "Reason": filterField.setPromptText("created, cloned, destroyed"); break;
+                default: filterField.setPromptText("Enter ID"); break;
+            }
+        });
 
         Button applyFilter = new Button("Apply");
         Button clearFilter = new Button("Clear");
 
-        panel.getChildren().addAll(filterLabel, filterField, applyFilter, clearFilter);
+        panel.getChildren().addAll(filterModeBox, filterField, applyFilter, clearFilter);
 
         applyFilter.setOnAction(e -> {
             String filterText = filterField.getText().trim();
+            clearFilter();
             if (!filterText.isEmpty()) {
-                try {
-                    currentFilterAgentId = Integer.parseInt(filterText);
-                    updateFxLog();
-                } catch (NumberFormatException ex) {
-                    showErrorDialog("Filter Error", "Please enter a valid Agent ID (number).");
-                    currentFilterAgentId = -1;
-                    updateFxLog();
+                switch (filterModeBox.getValue()) {
+                    case "Location":
+                        currentFilterLocation = filterText;
+                        break;
+                    case "Reason":
+                        try {
+                            currentFilterReason = LogBuffer.ReasonType.valueOf(filterText.toUpperCase(Locale.ROOT));
+                        } catch (IllegalArgumentException ex) {
+                            showErrorDialog("Filter Error", "Please enter one of: created, cloned, destroyed, other.");
+                        }
+                        break;
+                    default:
+                        try {
+                            currentFilterAgentId = Integer.parseInt(filterText);
+                        } catch (NumberFormatException ex) {
+                            showErrorDialog("Filter Error", "Please enter a valid Agent ID (number).");
+                        }
+                        break;
                 }
-            } else {
-                currentFilterAgentId = -1;
-                updateFxLog();
             }
+            rebuildFxLog();
         });
 
         clearFilter.setOnAction(e -> {
             filterField.clear();
-            currentFilterAgentId = -1;
-            updateFxLog();
+            clearFilter();
+            rebuildFxLog();
         });
 
         return panel;
     }
 
+    /**
+     * Removes any active filter.
+     */
+    private void clearFilter() {
+        currentFilterAgentId = -1;
+        currentFilterLocation = null;
+        currentFilterReason = null;
+    }
+
     /**
      * Builds the GridPane that shows the simulation statistics.
      * @return The configured stats panel Node.
@@ -186,54 +257,195 @@ public class LogPanel {
     }
 
     /**
-     * Updates the statistics labels with current data from the model.
+     * Saves every entry the model has logged since its last reset to a CSV file in
+     * {@link #ARCHIVE_DIR}, so the log of a run outlives a reset or a new configuration,
+     * and flushes the event log. Only the references to the entries are taken here, in one
+     * bulk copy, since the model clears its log on reset; formatting and writing happen on
+     * the single archiver thread. Call {@link #finishArchives()} before the application exits.
+     * Must be called before the model is reset or replaced.
+     * @return The archive file, or null if the model has logged nothing.
+     */
+    public Path archiveLog() {
+        EventLog.flush();
+        SimulationModel.LogEntry[] entries = model.getAgentLog().toArray(new SimulationModel.LogEntry[0]);
+        if (entries.length == 0) return null;
+
+        Path file = ARCHIVE_DIR.resolve("base-station-" + ARCHIVE_NAME_FORMAT.format(Instant.now()) + ".csv");
+        ARCHIVER.execute(() -> writeArchive(file, entries));
+        return file;
+    }
+
+    /**
+     * Waits for the archives still being written and stops the archiver thread.
+     * Called once, when the application closes.
+     */
+    public static void finishArchives() {
+        ARCHIVER.shutdown();
+        try {
+            if (!ARCHIVER.awaitTermination(ARCHIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Log archives still being written after " + ARCHIVE_TIMEOUT_SECONDS + "s were abandoned.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeArchive(Path file, SimulationModel.LogEntry[] entries) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("timestamp,agentId,x,y,reason");
+                out.newLine();
+                for (SimulationModel.LogEntry entry : entries) {
+                    out.write(entry.getTimestamp() + "," + entry.getAgentId() + ","
+                            + entry.getLocation().x + "," + entry.getLocation().y + ",\""
+                            + entry.getReason().replace("\"", "\"\"") + "\"");
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot archive the log to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the periodic statistics updates, once this panel is replaced by another.
+     */
+    public void dispose() {
+        if (statsTimeline != null) {
+            statsTimeline.stop();
+        }
+    }
+
+    /**
+     * Updates the statistics labels from the counters the agents maintain.
      * Ensures UI updates happen on the JavaFX Application Thread.
      */
     private void updateStats() {
-        int totalAgents = model.getAgentLog().size();
-        int activeAgents = model.getActiveAgentCount();
-        int burnedSensors = model.getBurnedSensorCount();
-        long uniqueLocations = model.getAgentLog().stream()
-                .map(SimulationModel.LogEntry::getLocation)
-                .distinct()
-                .count();
+        SimulationStatistics.Snapshot stats = getStatistics();
 
         Platform.runLater(() -> {
-            totalAgentsValue.setText(Integer.toString(totalAgents));
-            activeAgentsValue.setText(Integer.toString(activeAgents));
-            burnedSensorsValue.setText(Integer.toString(burnedSensors));
-            activeAreasValue.setText(Long.toString(uniqueLocations));
+            totalAgentsValue.setText(Long.toString(stats.getTotalAgents()));
+            activeAgentsValue.setText(Integer.toString(stats.getActiveAgents()));
+            burnedSensorsValue.setText(Integer.toString(stats.getBurnedSensors()));
+            activeAreasValue.setText(Long.toString(stats.getActiveAreas()));
         });
     }
 
     /**
-     * Refreshes the log table, applying the current agent-ID filter if set.
-     *  Scrolls to the newest entry if the table is not empty.
+     * Gets a snapshot of the current statistics.
+     * @return The immutable statistics snapshot.
+     */
+    public SimulationStatistics.Snapshot getStatistics() {
+        return SimulationStatistics.shared().snapshot(model.getActiveAgentCount(), model.getBurnedSensorCount());
+    }
+
+    /**
+     * Appends the log entries that arrived since the last refresh, applying the current
+     * agent-ID filter if set. Scrolls to the newest entry if any rows were added.
      */
     public void updateFxLog() {
-        List<SimulationModel.LogEntry> rawLog = model.getAgentLog();
-        List<LogEntryWrapper> filteredLog;
+        pullNewEntries();
+
+        List<SimulationModel.LogEntry> newEntries = new ArrayList<>();
+        displayedSequence = logBuffer.copySince(displayedSequence, newEntries);
+        List<LogEntryWrapper> newRows = new ArrayList<>();
+        for (SimulationModel.LogEntry entry : newEntries) {
+            if (matchesFilter(entry)) {
+                newRows.add(createLogEntryWrapper(entry));
+            }
+        }
+        if (newRows.isEmpty()) return;
+
+        Platform.runLater(() -> {
+            logData.addAll(newRows);
+            int excess = logData.size() - logBuffer.getCapacity();
+            if (excess > 0) {
+                logData.remove(0, excess);
+            }
+            logTable.scrollTo(logData.size() - 1);
+        });
+    }
 
+    /**
+     * Rebuilds the table from the retained entries, used when the filter changes.
+     * Filtered views are read from the log buffer's indexes, so only matching entries are visited.
+     */
+    private void rebuildFxLog() {
+        pullNewEntries();
+
+        List<SimulationModel.LogEntry> entries = new ArrayList<>();
         if (currentFilterAgentId != -1) {
-            filteredLog = rawLog.stream()
-                    .filter(entry -> entry.getAgentId() == currentFilterAgentId)
-                    .map(this::createLogEntryWrapper)
-                    .collect(Collectors.toList());
+            displayedSequence = logBuffer.copyAgentEntriesSince(currentFilterAgentId, 0, entries);
+        } else if (currentFilterLocation != null) {
+            displayedSequence = logBuffer.copyLocationEntriesSince(currentFilterLocation, 0, entries);
+        } else if (currentFilterReason != null) {
+            displayedSequence = logBuffer.copyReasonEntriesSince(currentFilterReason, 0, entries);
         } else {
-
-            filteredLog = rawLog.stream()
-                    .map(this::createLogEntryWrapper)
-                    .collect(Collectors.toList());
+            displayedSequence = logBuffer.copySince(0, entries);
+        }
+        List<LogEntryWrapper> rows = new ArrayList<>(entries.size());
+        for (SimulationModel.LogEntry entry : entries) {
+            rows.add(createLogEntryWrapper(entry));
         }
 
         Platform.runLater(() -> {
-            logData.setAll(filteredLog);
+            logData.setAll(rows);
             if (!logData.isEmpty()) {
                 logTable.scrollTo(logData.size() - 1);
             }
         });
     }
 
+    /**
+     * Copies entries the model has logged since the last call into the log buffer.
+     * The model's log is append-only until it is reset, so its size is the high-water mark.
+     */
+    private void pullNewEntries() {
+        List<SimulationModel.LogEntry> rawLog = model.getAgentLog();
+        int size = rawLog.size();
+        if (size < modelLogPosition) {
+            // The model was reset behind our back; start over.
+            clearBuffer();
+            Platform.runLater(logData::clear);
+        }
+        for (int i = modelLogPosition; i < size; i++) {
+            SimulationModel.LogEntry entry = rawLog.get(i);
+            logBuffer.append(entry);
+        }
+        if (size > modelLogPosition) {
+            SimulationMetrics.logAppended(size - modelLogPosition);
+        }
+        modelLogPosition = size;
+    }
+
+    /**
+     * Checks whether an entry passes the current filter.
+     * @param entry The log entry.
+     * @return true if the entry should be shown.
+     */
+    private boolean matchesFilter(SimulationModel.LogEntry entry) {
+        if (currentFilterAgentId != -1) {
+            return entry.getAgentId() == currentFilterAgentId;
+        }
+        if (currentFilterLocation != null) {
+            return currentFilterLocation.equals(LogBuffer.locationKey(entry));
+        }
+        if (currentFilterReason != null) {
+            return LogBuffer.ReasonType.of(entry.getReason()) == currentFilterReason;
+        }
+        return true;
+    }
+
+    /**
+     * Empties the log buffer and restarts incremental reading from the model.
+     */
+    private void clearBuffer() {
+        logBuffer.clear();
+        modelLogPosition = 0;
+        displayedSequence = 0;
+    }
+
     /**
      * Helper to convert SimulationModel.LogEntry to LogEntryWrapper.
      */
@@ -252,7 +464,8 @@ public class LogPanel {
      * Clearing all entries and the filter.
      */
     public void resetFxLog() {
-        currentFilterAgentId = -1;
+        clearFilter();
+        clearBuffer();
         Platform.runLater(() -> {
             logData.clear();
             filterField.clear();
@@ -287,12 +500,13 @@ public class LogPanel {
         private final SimpleStringProperty reason;
         private final SimpleLongProperty timestamp; // Keep original timestamp if needed
 
-        private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("HH:mm:ss");
+        private static final DateTimeFormatter DATE_FORMAT =
+                DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
 
 
         public LogEntryWrapper(long timestamp, int agentId, String location, String reason) {
             this.timestamp = new SimpleLongProperty(timestamp);
-            this.time = new SimpleStringProperty(DATE_FORMAT.format(new Date(timestamp)));
+            this.time = new SimpleStringProperty(DATE_FORMAT.format(Instant.ofEpochMilli(timestamp)));
             this.agentId = new SimpleIntegerProperty(agentId);
             this.location = new SimpleStringProperty(location);
             this.reason = new SimpleStringProperty(reason);
@@ -2,6 +2,7 @@ package fireSimulation;
 
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
@@ -20,7 +21,6 @@ import javafx.util.Duration;
 
 import java.io.File;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /*
  * The main entry point for the Forest Fire Simulation application using JavaFX.
@@ -30,6 +30,10 @@ import java.util.concurrent.Executors;
 public class Main extends Application {
     /** Default configuration file path. */
     private static final String DEFAULT_CONFIG = "example_config/sample.txt";
+    /** Named launch parameter selecting the executor mode, e.g. {@code --executor=platform}. */
+    private static final String EXECUTOR_PARAM = "executor";
+    /** Speed factor handed to the sensors while "Max" is ticked. */
+    private static final int MAX_SENSOR_SPEED = 1000;
     private SimulationModel model;
     private SimulationPanel simulationPanel;
     private LogPanel logPanel;
@@ -39,13 +43,20 @@ public class Main extends Application {
     private Button resetButton;
     private Button loadButton;
     private Slider speedSlider;
+    private CheckBox maxSpeedBox;
+    private ProgressIndicator loadProgress;
+    private Pane canvasContainer;
+    private SplitPane splitPane;
     private ExecutorService executorService;
+    private ExecutorMode executorMode = ExecutorMode.VIRTUAL;
     private boolean simulationRunning = false;
     private Timeline updateTimer;
+    private boolean redrawPending = false;
 
     /**
      * Launches the JavaFX application.
-     * @param args Command-line arguments; if provided, the first argument is the config file path.
+     * @param args Command-line arguments; if provided, the first argument is the config file path
+     *             and {@code --executor=virtual|platform} selects the executor mode.
      */
     public static void main(String[] args) {
         launch(args);
@@ -62,7 +73,9 @@ public class Main extends Application {
         primaryStage.setTitle("Forest Fire Simulation (JavaFX)");
 
         Parameters params = getParameters();
-        String configFile = params.getRaw().isEmpty() ? DEFAULT_CONFIG : params.getRaw().get(0);
+        String configFile = params.getUnnamed().isEmpty() ? DEFAULT_CONFIG : params.getUnnamed().get(0);
+        executorMode = ExecutorMode.fromString(params.getNamed().get(EXECUTOR_PARAM));
+        SimulationMetrics.publish();
 
         model = new SimulationModel();
         try {
@@ -73,23 +86,14 @@ public class Main extends Application {
             return;
         }
 
-        simulationPanel = new SimulationPanel(model);
-        logPanel = new LogPanel(model);
-
         Node controlPanel = createControlPanel();
 
-        SplitPane splitPane = new SplitPane();
+        splitPane = new SplitPane();
         splitPane.setOrientation(Orientation.HORIZONTAL);
-        Canvas simCanvas = simulationPanel.getFxPanel();
-        Pane canvasContainer = new Pane();
-        canvasContainer.getChildren().add(simCanvas);
-        simCanvas.widthProperty().bind(canvasContainer.widthProperty());
-        simCanvas.heightProperty().bind(canvasContainer.heightProperty());
-        canvasContainer.widthProperty().addListener((obs, oldVal, newVal) -> simulationPanel.updateFxPanel());
-        canvasContainer.heightProperty().addListener((obs, oldVal, newVal) -> simulationPanel.updateFxPanel());
-
-
-        splitPane.getItems().addAll(canvasContainer, logPanel.getFxPanel());
+        canvasContainer = new Pane();
+        canvasContainer.widthProperty().addListener((obs, oldVal, newVal) -> requestPanelRedraw());
+        canvasContainer.heightProperty().addListener((obs, oldVal, newVal) -> requestPanelRedraw());
+        showModel();
         splitPane.setDividerPositions(0.7);
 
         BorderPane root = new BorderPane();
@@ -104,6 +108,28 @@ public class Main extends Application {
         setupUpdateTimer();
     }
 
+    /**
+     * Creates the simulation and log panels for the current model and puts them on screen
+     * in place of the previous model's panels.
+     */
+    private void showModel() {
+        if (logPanel != null) {
+            logPanel.dispose();
+        }
+        simulationPanel = new SimulationPanel(model);
+        logPanel = new LogPanel(model);
+
+        Canvas simCanvas = simulationPanel.getFxPanel();
+        simCanvas.widthProperty().bind(canvasContainer.widthProperty());
+        simCanvas.heightProperty().bind(canvasContainer.heightProperty());
+        canvasContainer.getChildren().setAll(simCanvas);
+        if (splitPane.getItems().isEmpty()) {
+            splitPane.getItems().addAll(canvasContainer, logPanel.getFxPanel());
+        } else {
+            splitPane.getItems().set(1, logPanel.getFxPanel());
+        }
+    }
+
     /**
      * Creates the control panel with buttons and speed slider for user interaction.
      * @return The configured control panel Node (HBox).
@@ -117,41 +143,88 @@ public class Main extends Application {
         pauseButton = new Button("Pause");
         resetButton = new Button("Reset");
         loadButton = new Button("Load Config");
-        speedSlider = new Slider(1, 10, 1); // min, max, initial
+        speedSlider = new Slider(0.25, 10, 1); // min, max, initial
         speedSlider.setMajorTickUnit(1);
-        speedSlider.setMinorTickCount(0);
+        speedSlider.setMinorTickCount(3);
         speedSlider.setShowTickMarks(true);
         speedSlider.setShowTickLabels(true);
         speedSlider.setSnapToTicks(true);
 
         Label speedLabel = new Label("Simulation Speed:");
+        maxSpeedBox = new CheckBox("Max");
+        speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> applySpeed());
+        maxSpeedBox.setOnAction(e -> applySpeed());
         pauseButton.setDisable(true);
+        loadProgress = new ProgressIndicator();
+        loadProgress.setPrefSize(24, 24);
+        loadProgress.setVisible(false);
 
         startButton.setOnAction(e -> startSimulation());
         pauseButton.setOnAction(e -> pauseSimulation());
         resetButton.setOnAction(e -> resetSimulation());
         loadButton.setOnAction(e -> loadConfiguration());
 
-        panel.getChildren().addAll(startButton, pauseButton, resetButton, loadButton, speedLabel, speedSlider);
+        panel.getChildren().addAll(startButton, pauseButton, resetButton, loadButton, loadProgress, speedLabel, speedSlider, maxSpeedBox);
 
         return panel;
     }
 
+    /**
+     * Applies the slider or the "Max" box to the simulation clock; running agents pick the
+     * new speed up immediately, without a pause and restart.
+     */
+    private void applySpeed() {
+        boolean max = maxSpeedBox.isSelected();
+        speedSlider.setDisable(max);
+        SimulationClock.shared().setSpeed(max ? SimulationClock.MAX_SPEED : speedSlider.getValue());
+    }
+
+    /**
+     * Gets the whole-number speed factor handed to the sensors when the simulation starts.
+     * Sensors time themselves from this factor instead of waiting on the simulation clock,
+     * so below 1x, after a speed change and during a pause they do not follow the agents.
+     * @return The sensors' speed factor.
+     */
+    private int sensorSpeedFactor() {
+        if (maxSpeedBox.isSelected()) return MAX_SENSOR_SPEED;
+
+        return Math.max(1, (int) Math.round(speedSlider.getValue()));
+    }
+
     /**
      * Sets up the Timeline for periodic UI updates.
      * Initializes a timer to periodically update the UI elements, including the simulation and log panels.
      */
     private void setupUpdateTimer() {
         updateTimer = new Timeline(new KeyFrame(Duration.millis(50), e -> {
+            long start = SimulationMetrics.startTimer();
             simulationPanel.updateFxPanel();
+            SimulationMetrics.fxPanelRefresh().record(start);
+            start = SimulationMetrics.startTimer();
             logPanel.updateFxLog();
+            SimulationMetrics.fxLogRefresh().record(start);
         }));
         updateTimer.setCycleCount(Animation.INDEFINITE);
     }
 
 
     /**
-     * Starts the simulation
+     * Schedules a single redraw of the simulation panel.
+     * A window resize fires many width and height changes in a row; they are coalesced
+     * into one redraw on the next pulse instead of redrawing the whole network for each.
+     */
+    private void requestPanelRedraw() {
+        if (redrawPending) return;
+
+        redrawPending = true;
+        Platform.runLater(() -> {
+            redrawPending = false;
+            simulationPanel.updateFxPanel();
+        });
+    }
+
+    /**
+     * Starts the simulation, or resumes it after a pause.
      * Disabling start/load buttons and enabling pause.
      * Updates the timer play
      */
@@ -163,14 +236,22 @@ public class Main extends Application {
         pauseButton.setDisable(false);
         loadButton.setDisable(true);
 
-        executorService = Executors.newCachedThreadPool();
-        model.startSimulation(executorService, (int) speedSlider.getValue());
+        applySpeed();
+        if (executorService != null) {
+            // Paused: the agents are still waiting on the clock in their threads.
+            SimulationClock.shared().resume();
+        } else {
+            executorService = SimulationMetrics.instrument(executorMode.createExecutor());
+            model.startSimulation(executorService, sensorSpeedFactor());
+        }
 
         updateTimer.play();
     }
 
     /**
      * Pauses the simulation, re-enabling start/load buttons and disabling pause.
+     * Only the simulation clock stops: every agent stays blocked in place on its thread and
+     * the executor is kept, so Start carries on without rebuilding any thread.
      */
     private void pauseSimulation() {
         if (!simulationRunning) return;
@@ -181,22 +262,46 @@ public class Main extends Application {
         loadButton.setDisable(false);
 
         updateTimer.pause();
-        model.pauseSimulation();
-        shutdownExecutor();
+        SimulationClock.shared().pause();
+    }
+
+    /**
+     * Ends the current run: stops the model and its executor, then lets the clock run again
+     * for the next run. Used before a reset, a new configuration or exit.
+     */
+    private void stopSimulation() {
+        pauseSimulation();
+        if (executorService != null) {
+            model.pauseSimulation();
+            shutdownExecutor();
+        }
+        SimulationClock.shared().resume();
     }
 
     /**
      * Resets the simulation to its initial state based on the current configuration.
+     * The log of the run so far is archived first.
      */
     private void resetSimulation() {
-        pauseSimulation();
+        stopSimulation();
+        logPanel.archiveLog();
         model.resetSimulation();
+        // Clones and parked agents of the old run no longer count or watch anything; a new
+        // configuration also gets here once it is loaded.
+        CloneAdmission.shared().reset();
+        NodeWatchers.clear();
+        SimulationStatistics.shared().reset();
         simulationPanel.updateFxPanel();
         logPanel.resetFxLog();
     }
 
     /**
      * Opens a file chooser to load a new configuration file and resets the simulation.
+     * The file is parsed into a new model on a background thread, so large networks do not
+     * freeze the UI, and the new model replaces the current one on the FX thread once it is
+     * complete. Until then the panels keep showing the current model, which the loader
+     * never touches, and a spinner shows that loading is under way; the model's parser
+     * reports no progress.
      */
     private void loadConfiguration() {
         FileChooser fileChooser = new FileChooser();
@@ -208,17 +313,50 @@ public class Main extends Application {
 
         File selectedFile = fileChooser.showOpenDialog(primaryStage);
         if (selectedFile != null) {
-            try {
-                pauseSimulation();
-                model.loadConfiguration(selectedFile.getAbsolutePath());
+            pauseSimulation();
+            String path = selectedFile.getPath();
+            Task<SimulationModel> loadTask = new Task<>() {
+                @Override
+                protected SimulationModel call() throws Exception {
+                    SimulationModel loaded = new SimulationModel();
+                    loaded.loadConfiguration(path);
+                    return loaded;
+                }
+            };
+            loadTask.setOnSucceeded(e -> {
+                setLoading(false);
+                stopSimulation();
+                logPanel.archiveLog();
+                model = loadTask.getValue();
+                showModel();
                 resetSimulation();
                 showInfoDialog("Success", "Configuration loaded successfully!");
-            } catch (Exception e) {
-                showErrorDialog("Configuration Error", "Error loading configuration: " + e.getMessage());
-            }
+            });
+            loadTask.setOnFailed(e -> {
+                setLoading(false);
+                Throwable error = loadTask.getException();
+                showErrorDialog("Configuration Error", "Error loading configuration: "
+                        + (error == null ? "unknown error" : error.getMessage()));
+            });
+
+            setLoading(true);
+            Thread loader = new Thread(loadTask, "config-loader");
+            loader.setDaemon(true);
+            loader.start();
         }
     }
 
+    /**
+     * Shows or hides the loading indicator and locks the controls while a configuration loads.
+     * @param loading true while a configuration is being loaded.
+     */
+    private void setLoading(boolean loading) {
+        loadProgress.setVisible(loading);
+        startButton.setDisable(loading);
+        resetButton.setDisable(loading);
+        loadButton.setDisable(loading);
+    }
+
     /**
      * Shuts down the executor service if it's running.
      */
@@ -233,11 +371,15 @@ public class Main extends Application {
      * Performs cleanup actions when the application is closing.
      */
     private void shutdown() {
-        pauseSimulation();
+        stopSimulation();
+        logPanel.archiveLog();
+        LogPanel.finishArchives();
         if (updateTimer != null) {
             updateTimer.stop();
         }
-        System.out.println("Application shutting down.");
+        SimulationMetrics.stopHttp();
+        EventLog.info(EventLog.EventType.APPLICATION_SHUTDOWN, -1, null);
+        EventLog.flush();
     }
 
     /**
@@ -1,22 +1,40 @@
 package fireSimulation;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
  * Represents a mobile agent that traverses the sensor network to monitor fire spread.
  * Agents prioritize movement to yellow (NEAR_FIRE) nodes and clone themselves when on yellow nodes.
+ * A walk step allocates nothing: neighbors are sampled in a single pass and agents draw
+ * from the thread's {@link ThreadLocalRandom}.
+ * An agent whose neighbors are all burning or occupied cannot act until one of them is
+ * released, so instead of polling it parks until its node or a neighbor is published to
+ * {@link NodeWatchers} (released, or changed state) or {@link #IDLE_BACKSTOP_MILLIS} passes.
  */
 
 public class MobileAgent implements Runnable {
+    /** Longest an idle agent parks without a notification, set by {@code fireSimulation.agent.idleBackstopMillis}. */
+    public static final long IDLE_BACKSTOP_MILLIS = Long.getLong("fireSimulation.agent.idleBackstopMillis", 5000);
     private final int id;
     private SensorNode currentNode;
     private final SimulationModel model;
     private final AtomicBoolean active = new AtomicBoolean(true);
-    private final Random random = new Random();
+    /** Log reason for clones of this agent, built on first use. */
+    private String cloneReason;
+    private final CloneAdmission admission = CloneAdmission.shared();
+    private final SimulationStatistics statistics = SimulationStatistics.shared();
+    private final SimulationClock clock = SimulationClock.shared();
+    /** Whether this agent is a clone still holding a place in the admission budget. */
+    private final AtomicBoolean admitted = new AtomicBoolean();
+    /** Whether the last step found nothing to do. */
+    private boolean idle = false;
+    private volatile Thread runner;
 
     /**
      * Constructs a new mobile agent.
@@ -35,116 +53,255 @@ public class MobileAgent implements Runnable {
      */
     @Override
     public void run() {
-        currentNode.sendLogToBaseStation(id, currentNode.getLocation(), "Agent created");
+        logCreation();
+        SimulationMetrics.agentStarted();
+        runner = Thread.currentThread();
+        try {
+            while (active.get() && model.isSimulationActive()) {
+                step();
 
-        while (active.get() && model.isSimulationActive()) {
-            if (currentNode.getState() == SensorNode.State.NEAR_FIRE) {
-                createCopiesOnNeighbors();
-            } else {
-                randomWalk();
+                if (idle) {
+                    if (!awaitNeighborChange()) return;
+                    continue;
+                }
+                try {
+                    // One step per virtual second; the clock applies live speed changes and pauses.
+                    clock.sleep(SimulationClock.TICK_NANOS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
+        } finally {
+            runner = null;
+            // Pause and reset interrupt agents without destroying them; the slot goes back either way.
+            releaseAdmission();
+            SimulationMetrics.agentStopped();
+        }
+    }
 
-            try {
-                Thread.sleep(1000 / model.getSpeedFactor());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return;
+    /**
+     * Parks until its node or a neighbor changes, this agent is destroyed or the backstop
+     * passes. The agent subscribes before re-checking its neighbors, so a change that
+     * happens in between still wakes it.
+     * @return false if the thread was interrupted.
+     */
+    private boolean awaitNeighborChange() {
+        SensorNode node = currentNode;
+        List<SensorNode> neighbors = node.getNeighbors();
+        NodeWatchers.subscribe(node, this);
+        NodeWatchers.subscribe(neighbors, this);
+        try {
+            if (!hasFreeNeighbor() && active.get()) {
+                SimulationMetrics.agentParked();
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_BACKSTOP_MILLIS));
             }
+        } finally {
+            NodeWatchers.unsubscribe(neighbors, this);
+            NodeWatchers.unsubscribe(node, this);
         }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private boolean hasFreeNeighbor() {
+        List<SensorNode> neighbors = currentNode.getNeighbors();
+        for (int i = 0, n = neighbors.size(); i < n; i++) {
+            SensorNode neighbor = neighbors.get(i);
+            if (neighbor.getState() != SensorNode.State.ON_FIRE && !neighbor.hasAgent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wakes this agent if it is parked waiting for a neighbor to change.
+     */
+    void wake() {
+        Thread thread = runner;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Reports this agent's creation to the base station and the statistics.
+     */
+    private void logCreation() {
+        currentNode.sendLogToBaseStation(id, currentNode.getLocation(), "Agent created");
+        statistics.agentCreated(currentNode.getLocation());
+    }
+
+    /**
+     * Performs a single step: clones on a yellow node, otherwise walks.
+     */
+    public void step() {
+        long start = SimulationMetrics.startTimer();
+        if (currentNode.getState() == SensorNode.State.NEAR_FIRE) {
+            idle = createCopiesOnNeighbors() == 0 && !hasFreeNeighbor();
+        } else {
+            idle = !randomWalk();
+        }
+        SimulationMetrics.agentStepped();
+        SimulationMetrics.stepLatency().record(start);
     }
 
     /**
      * Performs a random walk
      * Prioritizing yellow (NEAR_FIRE) nodes over blue (NORMAL) ones.
-     * Uses ordered locking to prevent deadlocks during movement.
+     * @return false if no neighbor was available.
      */
-    private void randomWalk() {
-        List<SensorNode> yellowNeighbors = new ArrayList<>();
-        List<SensorNode> blueNeighbors = new ArrayList<>();
+    private boolean randomWalk() {
+        SensorNode nextNode = chooseNextNode();
+        moveTo(nextNode);
+        return nextNode != null;
+    }
 
-        for (SensorNode neighbor : currentNode.getNeighbors()) {
-            if (neighbor.getState() != SensorNode.State.ON_FIRE && !neighbor.hasAgent()) {
-                if (neighbor.getState() == SensorNode.State.NEAR_FIRE) {
-                    yellowNeighbors.add(neighbor);
-                } else if (neighbor.getState() == SensorNode.State.NORMAL) {
-                    blueNeighbors.add(neighbor);
-                }
+    /**
+     * Picks the next node for a random walk without changing any state.
+     * Yellow (NEAR_FIRE) neighbors are preferred over blue (NORMAL) ones.
+     * @return The chosen neighbor, or null if no neighbor is available.
+     */
+    private SensorNode chooseNextNode() {
+        Random rng = ThreadLocalRandom.current();
+        List<SensorNode> neighbors = currentNode.getNeighbors();
+        SensorNode yellow = null;
+        SensorNode blue = null;
+        int yellowSeen = 0;
+        int blueSeen = 0;
+
+        // Reservoir sampling: the k-th candidate replaces the current pick with probability 1/k,
+        // so every candidate is equally likely without collecting them first.
+        for (int i = 0, n = neighbors.size(); i < n; i++) {
+            SensorNode neighbor = neighbors.get(i);
+            SensorNode.State state = neighbor.getState();
+            if (state == SensorNode.State.ON_FIRE || neighbor.hasAgent()) {
+                continue;
+            }
+            if (state == SensorNode.State.NEAR_FIRE) {
+                if (rng.nextInt(++yellowSeen) == 0) yellow = neighbor;
+            } else if (state == SensorNode.State.NORMAL && yellowSeen == 0) {
+                if (rng.nextInt(++blueSeen) == 0) blue = neighbor;
             }
         }
 
-        SensorNode nextNode = null;
-        if (!yellowNeighbors.isEmpty()) {
-            nextNode = yellowNeighbors.get(random.nextInt(yellowNeighbors.size()));
-            System.out.println("Agent " + id + " prioritizing yellow node at " + nextNode.getLocation());
-        } else if (!blueNeighbors.isEmpty()) {
-            nextNode = blueNeighbors.get(random.nextInt(blueNeighbors.size()));
-            System.out.println("Agent " + id + " moving to blue node at " + nextNode.getLocation());
+        if (yellow != null) {
+            EventLog.debug(EventLog.EventType.AGENT_PRIORITIZING_YELLOW, id, yellow.getLocation());
+            return yellow;
         }
+        if (blue != null) {
+            EventLog.debug(EventLog.EventType.AGENT_MOVING_BLUE, id, blue.getLocation());
+        }
+        return blue;
+    }
 
+    /**
+     * Moves this agent to the given node without holding any lock:
+     * the target is claimed first and the current node is released only once the claim succeeded.
+     * @param nextNode The target node, or null if no neighbor was available.
+     */
+    private void moveTo(SensorNode nextNode) {
         if (nextNode != null) {
-            SensorNode lockFirst = currentNode;
-            SensorNode lockSecond = nextNode;
-
-            if (System.identityHashCode(currentNode) > System.identityHashCode(nextNode)) {
-                lockFirst = nextNode;
-                lockSecond = currentNode;
+            SimulationMetrics.moveAttempted();
+            if (currentNode.getCurrentAgentUnsafe() != this) {
+                EventLog.debug(EventLog.EventType.AGENT_MOVE_ABORTED, id, nextNode.getLocation());
+                return;
             }
-
-            boolean firstLocked = false;
-            boolean secondLocked = false;
-            try {
-                firstLocked = lockFirst.getAgentLock().tryLock();
-                if (firstLocked) {
-                    secondLocked = lockSecond.getAgentLock().tryLock();
-                }
-
-                if (firstLocked && secondLocked) {
-                    if (nextNode.getState() != SensorNode.State.ON_FIRE &&
-                            nextNode.getCurrentAgentUnsafe() == null &&
-                            currentNode.getCurrentAgentUnsafe() == this) {
-                        nextNode.setCurrentAgentUnsafe(this);
-                        currentNode.setCurrentAgentUnsafe(null);
-                        currentNode = nextNode;
-                        System.out.println("Agent " + id + " successfully moved to " + currentNode.getLocation());
-                    } else {
-                        System.out.println("Agent " + id + " move to " + nextNode.getLocation() + " aborted (conditions changed).");
-                    }
-                } else {
-                    System.out.println("Agent " + id + " failed to acquire locks for move to " + nextNode.getLocation());
-                }
-            } finally {
-
-                if (secondLocked) lockSecond.getAgentLock().unlock();
-                if (firstLocked) lockFirst.getAgentLock().unlock();
+            if (!nextNode.setAgent(this)) {
+                SimulationMetrics.moveClaimFailed();
+                EventLog.debug(EventLog.EventType.AGENT_MOVE_ABORTED, id, nextNode.getLocation());
+                return;
+            }
+            if (nextNode.getState() == SensorNode.State.ON_FIRE) {
+                // The target ignited after we claimed it; stay where we are.
+                nextNode.setCurrentAgentUnsafe(null);
+                NodeWatchers.publish(nextNode);
+                EventLog.debug(EventLog.EventType.AGENT_MOVE_ABORTED, id, nextNode.getLocation());
+                return;
             }
+            SensorNode previousNode = currentNode;
+            previousNode.setCurrentAgentUnsafe(null);
+            currentNode = nextNode;
+            NodeWatchers.publish(previousNode);
+            SimulationMetrics.moveCompleted();
+            EventLog.debug(EventLog.EventType.AGENT_MOVED, id, currentNode.getLocation());
         } else {
-            System.out.println("Agent " + id + " at " + currentNode.getLocation() + " has no available neighbors to move to.");
+            EventLog.debug(EventLog.EventType.AGENT_NO_NEIGHBORS, id, currentNode.getLocation());
         }
     }
 
     /**
      * Creates copies of this agent on unoccupied neighboring nodes when on a yellow node.
+     * @return The number of clones created.
      */
-    private void createCopiesOnNeighbors() {
-        for (SensorNode neighbor : currentNode.getNeighbors()) {
+    private int createCopiesOnNeighbors() {
+        int created = 0;
+        List<SensorNode> neighbors = currentNode.getNeighbors();
+        for (int i = 0, n = neighbors.size(); i < n; i++) {
+            SensorNode neighbor = neighbors.get(i);
             if (neighbor.getState() == SensorNode.State.ON_FIRE || neighbor.hasAgent()) {
                 continue;
             }
 
-            MobileAgent newAgent = new MobileAgent(model.getNextAgentId(), neighbor, model);
-            if (neighbor.setAgent(newAgent)) {
-                String reason = "Cloned from Agent " + id + " (near fire)";
-                neighbor.sendLogToBaseStation(newAgent.getId(), neighbor.getLocation(), reason);
+            CloneAdmission.Verdict verdict = admission.tryAdmit(CloneAdmission.NO_REGION);
+            if (verdict != CloneAdmission.Verdict.ADMITTED) {
+                EventLog.debug(EventLog.EventType.CLONE_REJECTED, id, neighbor.getLocation());
+                if (admission.shouldReportRefusal()) {
+                    EventLog.warn(EventLog.EventType.CLONE_ADMISSION_SATURATED, id, verdict);
+                }
+                continue;
+            }
+
+            int newId = model.getNextAgentId();
+            MobileAgent newAgent = new MobileAgent(newId, neighbor, model);
+            newAgent.admitted.set(true);
+            if (!neighbor.setAgent(newAgent)) {
+                admission.release(CloneAdmission.NO_REGION);
+            } else {
+                if (cloneReason == null) {
+                    cloneReason = "Cloned from Agent " + id + " (near fire)";
+                }
+                neighbor.sendLogToBaseStation(newAgent.getId(), neighbor.getLocation(), cloneReason);
+                statistics.agentCloned(neighbor.getLocation());
+                SimulationMetrics.cloneCreated();
+                created++;
                 model.submitAgentTask(newAgent);
             }
         }
+        return created;
     }
+
     /**
-     * Destroys this agent, stopping its execution.
+     * Destroys this agent, stopping its execution. Agents are destroyed when their node
+     * ignites, so the node is published for the agents parked next to it.
      */
     public void destroy() {
-        active.set(false);
+        if (active.getAndSet(false)) {
+            statistics.agentDestroyed(currentNode.getLocation());
+        }
+        releaseAdmission();
+        wake();
+        NodeWatchers.publish(currentNode);
     }
+
+    /**
+     * Returns this clone's place in the admission budget, once, whether it was destroyed or
+     * its task ended first.
+     */
+    private void releaseAdmission() {
+        if (admitted.getAndSet(false)) {
+            admission.release(CloneAdmission.NO_REGION);
+        }
+    }
+
+    /**
+     * Checks whether this agent is still running.
+     * @return true until the agent is destroyed.
+     */
+    public boolean isActive() {
+        return active.get();
+    }
+
     /**
      * Gets the unique identifier of this agent.
      * @return The agent's ID.
@@ -0,0 +1,92 @@
+package fireSimulation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Change notifications for sensor nodes, so idle agents can park instead of polling.
+ * An agent with nothing to do subscribes to its own node and its neighbors and parks; whoever
+ * changes one of those nodes (an agent leaving it, or a state transition) publishes the node
+ * and every subscribed agent is woken. Sensor state transitions are published by the sensor
+ * that changes state, and by an agent destroyed because its node ignited. Agents always park
+ * with a backstop timeout, so a missed notification only delays them, it never strands them.
+ * A node's entry is removed with its last subscriber, so the map only holds nodes that idle
+ * agents are watching right now.
+ */
+public final class NodeWatchers {
+    private static final Map<SensorNode, Set<MobileAgent>> watchers = new ConcurrentHashMap<>();
+
+    private NodeWatchers() {
+    }
+
+    /**
+     * Subscribes an agent to changes of every node in a list.
+     * @param nodes The nodes to watch.
+     * @param agent The agent to wake.
+     */
+    public static void subscribe(List<SensorNode> nodes, MobileAgent agent) {
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            subscribe(nodes.get(i), agent);
+        }
+    }
+
+    /**
+     * Subscribes an agent to changes of one node.
+     * The set is created and filled under the map's lock for the node, so a concurrent
+     * unsubscribe cannot remove it between the two.
+     * @param node The node to watch.
+     * @param agent The agent to wake.
+     */
+    public static void subscribe(SensorNode node, MobileAgent agent) {
+        watchers.compute(node, (key, agents) -> {
+            Set<MobileAgent> set = agents == null ? ConcurrentHashMap.newKeySet() : agents;
+            set.add(agent);
+            return set;
+        });
+    }
+
+    /**
+     * Removes an agent's subscriptions to every node in a list.
+     * @param nodes The watched nodes.
+     * @param agent The agent.
+     */
+    public static void unsubscribe(List<SensorNode> nodes, MobileAgent agent) {
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            unsubscribe(nodes.get(i), agent);
+        }
+    }
+
+    /**
+     * Removes an agent's subscription to one node, and the node's entry once nobody watches it.
+     * @param node The watched node.
+     * @param agent The agent.
+     */
+    public static void unsubscribe(SensorNode node, MobileAgent agent) {
+        watchers.computeIfPresent(node, (key, agents) -> {
+            agents.remove(agent);
+            return agents.isEmpty() ? null : agents;
+        });
+    }
+
+    /**
+     * Wakes every agent watching a node. Cheap when nobody watches it.
+     * @param node The node that changed.
+     */
+    public static void publish(SensorNode node) {
+        Set<MobileAgent> agents = watchers.get(node);
+        if (agents == null || agents.isEmpty()) return;
+
+        for (MobileAgent agent : agents) {
+            agent.wake();
+        }
+    }
+
+    /**
+     * Drops every subscription, e.g. when the simulation is reset or the network is reloaded.
+     */
+    public static void clear() {
+        watchers.clear();
+    }
+}
@@ -0,0 +1,476 @@
+package fireSimulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+/**
+ * One worker process of a partitioned simulation, started by PartitionedSimulation.
+ * Usage: PartitionWorker port index workers seed network.txt
+ * The worker owns the nodes [size * index / workers, size * (index + 1) / workers) of the
+ * network. It spreads fire and steps agents on those nodes only, and mirrors the state of the
+ * foreign nodes next to them from their owners. Each tick it receives, through the
+ * coordinator on the loopback port:
+ * - the state of the foreign nodes next to its own;
+ * - agents walking or cloning onto its nodes;
+ * - its owners' answers to its own agents' moves.
+ * It then runs the tick and sends the same kinds of messages back. An agent walking onto a
+ * foreign node reserves the node's mirror and stays where it is until the owner accepts the
+ * move in the next tick. It is removed here only once the owner has placed it. Fire and
+ * agents therefore cross a partition boundary one tick later than they would in a single
+ * process. Agents step through {@link CompactGraph}'s step, the same one CompactSimulation uses.
+ * Each worker has its own clone admission policy from the system properties, timed by its own
+ * ticks, so the limits apply per partition. The owner of a node admits the clones sent onto it;
+ * an agent walking in from another partition is counted without being checked, like a clone
+ * restored from a checkpoint.
+ */
+public class PartitionWorker {
+    /** Record kind of an agent walking onto a foreign node. */
+    static final byte MOVE = 1;
+    /** Record kind of a clone placed on a foreign node. */
+    static final byte CLONE = 2;
+    /** Tick number telling a worker to report its totals and exit. */
+    static final int STOP = -1;
+
+    private final CompactGraph graph;
+    private final int index;
+    private final int workers;
+    private final int[] starts;
+    private final Random random;
+    /** Owned nodes with at least one foreign neighbor, and the workers owning those neighbors. */
+    private final int[] boundary;
+    private final int[][] boundaryTargets;
+    private int[] agentIds = new int[1024];
+    private int[] agentNodes = new int[1024];
+    /** Whether each agent waits for a foreign owner to accept its move. */
+    private boolean[] migrating = new boolean[1024];
+    private int agentCount = 0;
+    private int nextAgentId;
+    private int spawned = 0;
+    private Outbound[] outbound;
+    private int tick = 0;
+    /** ID of the agent placed on the base station, which no admission policy counts. */
+    private final int stationAgentId;
+    private final CloneAdmission admission;
+    private int steppingAgent;
+    // Callbacks are created once so that a tick allocates nothing per agent.
+    private final IntSupplier agentIdSource = this::newAgentId;
+    private final IntPredicate cloneAdmitter = this::admitClone;
+    private final IntConsumer cloneListener = this::cloneCreated;
+    private final CompactGraph.Boundary crossings = new CompactGraph.Boundary() {
+        @Override
+        public void walkedAcross(int from, int to, int agent) {
+            migrating[steppingAgent] = true;
+            outbound[ownerOf(to)].request(MOVE, agent, from, to, index);
+        }
+
+        @Override
+        public void clonedAcross(int from, int to, int parent) {
+            outbound[ownerOf(to)].request(CLONE, parent, from, to, index);
+        }
+    };
+
+    /**
+     * Creates the worker for one partition of a network and places the first agent if the
+     * base station is one of its nodes.
+     * @param graph The whole network; only this worker's range is simulated here.
+     * @param index The partition index.
+     * @param workers The number of partitions.
+     * @param seed The seed of the whole run.
+     */
+    PartitionWorker(CompactGraph graph, int index, int workers, long seed) {
+        this.graph = graph;
+        this.index = index;
+        this.workers = workers;
+        this.starts = partitionStarts(graph.size(), workers);
+        this.random = new Random(seed * 0x9E3779B97F4A7C15L + index);
+        this.nextAgentId = index;
+        graph.setOwnedRange(starts[index], starts[index + 1]);
+        CloneAdmission policy = CloneAdmission.fromSystemProperties(() -> tick * CompactSimulation.NANOS_PER_TICK);
+        this.admission = policy.isLimited() ? policy : null;
+
+        CompactGraph.IntList nodes = new CompactGraph.IntList();
+        int[][] targets = new int[starts[index + 1] - starts[index]][];
+        for (int node = starts[index]; node < starts[index + 1]; node++) {
+            boolean[] seen = new boolean[workers];
+            int count = 0;
+            for (int k = 0; k < graph.degree(node); k++) {
+                int owner = ownerOf(graph.neighbor(node, k));
+                if (owner != index && !seen[owner]) {
+                    seen[owner] = true;
+                    count++;
+                }
+            }
+            if (count == 0) continue;
+
+            int[] owners = new int[count];
+            for (int w = 0, i = 0; w < workers; w++) {
+                if (seen[w]) owners[i++] = w;
+            }
+            targets[nodes.size()] = owners;
+            nodes.add(node);
+        }
+        boundary = new int[nodes.size()];
+        for (int i = 0; i < boundary.length; i++) {
+            boundary[i] = nodes.get(i);
+        }
+        boundaryTargets = Arrays.copyOf(targets, boundary.length);
+
+        int station = graph.getStation();
+        // Every worker knows the station agent's ID: it is the first one its owner hands out.
+        this.stationAgentId = station == CompactGraph.NO_NODE ? -1 : ownerOf(station);
+        if (station != CompactGraph.NO_NODE && graph.owns(station)) {
+            int id = newAgentId();
+            if (graph.placeAgent(station, id)) {
+                addAgent(id, station);
+            }
+        }
+    }
+
+    /**
+     * Connects to the coordinator and runs ticks until told to stop.
+     * @param args The coordinator's port, the partition index, the number of partitions,
+     *             the seed and the network configuration file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            System.err.println("Usage: PartitionWorker port index workers seed network.txt");
+            System.exit(2);
+        }
+        try {
+            int port = Integer.parseInt(args[0]);
+            int index = Integer.parseInt(args[1]);
+            int workers = Integer.parseInt(args[2]);
+            long seed = Long.parseLong(args[3]);
+            PartitionWorker worker = new PartitionWorker(CompactGraph.load(args[4]), index, workers, seed);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+                out.writeInt(index);
+                out.flush();
+                worker.serve(in, out);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Partition worker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Splits the node indices into contiguous, nearly equal ranges. Nodes are numbered in
+     * location order, so each range is a band of the network.
+     * @param size The node count.
+     * @param workers The number of partitions.
+     * @return The first node of each partition, followed by the node count.
+     */
+    static int[] partitionStarts(int size, int workers) {
+        int[] starts = new int[workers + 1];
+        for (int i = 0; i <= workers; i++) {
+            starts[i] = (int) ((long) size * i / workers);
+        }
+        return starts;
+    }
+
+    private int ownerOf(int node) {
+        int found = Arrays.binarySearch(starts, node);
+        if (found >= 0) {
+            // Skip empty partitions that start at the same node.
+            while (found + 1 < starts.length && starts[found + 1] == node) found++;
+            return found;
+        }
+        return -found - 2;
+    }
+
+    /**
+     * Answers tick messages until the coordinator sends {@link #STOP}, then reports totals.
+     */
+    void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int tick = in.readInt();
+            if (tick != STOP) this.tick = tick;
+            outbound = new Outbound[workers];
+            for (int w = 0; w < workers; w++) {
+                outbound[w] = new Outbound();
+            }
+            applyInbound(in, tick != STOP);
+            if (tick == STOP) {
+                writeTotals(out);
+                out.flush();
+                return;
+            }
+            tick(tick);
+            for (Outbound batch : outbound) {
+                batch.writeTo(out);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Applies the owners' answers to moves, the mirrored boundary states and the agents
+     * arriving from other partitions, in that order.
+     * @param in The coordinator's message.
+     * @param accept false on the final message: arriving agents are then left with their senders.
+     */
+    private void applyInbound(DataInputStream in, boolean accept) throws IOException {
+        int updates = in.readInt();
+        in.readInt();
+        int[] updateNodes = new int[updates];
+        byte[] updateStates = new byte[updates];
+        int[] updateOccupants = new int[updates];
+        for (int i = 0; i < updates; i++) {
+            updateNodes[i] = in.readInt();
+            updateStates[i] = in.readByte();
+            updateOccupants[i] = in.readInt();
+        }
+
+        int requests = in.readInt();
+        in.readInt();
+        byte[] kinds = new byte[requests];
+        int[][] fields = new int[requests][];
+        for (int i = 0; i < requests; i++) {
+            kinds[i] = in.readByte();
+            fields[i] = new int[] {in.readInt(), in.readInt(), in.readInt(), in.readInt()};
+        }
+
+        int replies = in.readInt();
+        in.readInt();
+        Set<Integer> departed = new HashSet<>();
+        Set<Integer> refused = new HashSet<>();
+        for (int i = 0; i < replies; i++) {
+            int agentId = in.readInt();
+            int from = in.readInt();
+            if (in.readBoolean()) {
+                // The agent may have burned on its old node while the owner placed it.
+                if (graph.getOccupant(from) == agentId) graph.evict(from);
+                departed.add(agentId);
+            } else {
+                refused.add(agentId);
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < agentCount; i++) {
+            if (departed.contains(agentIds[i])) {
+                if (counted(agentIds[i])) admission.release(regionOf(agentNodes[i]));
+                continue;
+            }
+            agentIds[kept] = agentIds[i];
+            agentNodes[kept] = agentNodes[i];
+            migrating[kept] = migrating[i] && !refused.contains(agentIds[i]);
+            kept++;
+        }
+        agentCount = kept;
+        if (!accept) return;
+
+        for (int i = 0; i < updates; i++) {
+            graph.mirror(updateNodes[i], updateStates[i], updateOccupants[i]);
+        }
+        for (int i = 0; i < requests; i++) {
+            int agentId = fields[i][0];
+            int from = fields[i][1];
+            int to = fields[i][2];
+            int source = fields[i][3];
+            if (kinds[i] == MOVE) {
+                boolean placed = graph.placeAgent(to, agentId);
+                if (placed) {
+                    addAgent(agentId, to);
+                    if (counted(agentId)) admission.adopt(regionOf(to));
+                }
+                outbound[source].reply(agentId, from, placed);
+            } else if (admission == null || CompactSimulation.admitClone(admission, graph, to, agentId)) {
+                if (graph.placeClone(to, agentIdSource)) {
+                    addAgent(graph.getOccupant(to), to);
+                } else if (admission != null) {
+                    // The node was taken since the clone was sent.
+                    admission.release(regionOf(to));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one tick: fire spread on the owned nodes, removal of burned agents, one step per
+     * agent and the boundary states for the neighbors.
+     */
+    private void tick(int tick) {
+        graph.spreadFire(tick, random, null);
+        int kept = 0;
+        for (int i = 0; i < agentCount; i++) {
+            if (graph.getOccupant(agentNodes[i]) != agentIds[i]) {
+                if (counted(agentIds[i])) admission.release(regionOf(agentNodes[i]));
+                continue;
+            }
+            agentIds[kept] = agentIds[i];
+            agentNodes[kept] = agentNodes[i];
+            migrating[kept] = migrating[i];
+            kept++;
+        }
+        agentCount = kept;
+
+        int stepping = agentCount;
+        for (int i = 0; i < stepping; i++) {
+            if (migrating[i]) continue;
+
+            int node = agentNodes[i];
+            steppingAgent = i;
+            int next = graph.step(node, random, agentIdSource,
+                    admission == null ? null : cloneAdmitter, cloneListener, crossings);
+            if (next != node) {
+                agentNodes[i] = next;
+                if (counted(agentIds[i])) admission.moved(regionOf(node), regionOf(next));
+            }
+        }
+
+        for (int b = 0; b < boundary.length; b++) {
+            int node = boundary[b];
+            for (int target : boundaryTargets[b]) {
+                outbound[target].update(node, graph.getStateCode(node), graph.getOccupant(node));
+            }
+        }
+    }
+
+    private boolean admitClone(int node) {
+        return CompactSimulation.admitClone(admission, graph, node, agentIds[steppingAgent]);
+    }
+
+    private void cloneCreated(int node) {
+        addAgent(graph.getOccupant(node), node);
+    }
+
+    private boolean counted(int agentId) {
+        return admission != null && agentId != stationAgentId;
+    }
+
+    private long regionOf(int node) {
+        return admission.regionOf(graph.getX(node), graph.getY(node));
+    }
+
+    private int newAgentId() {
+        int id = nextAgentId;
+        nextAgentId += workers;
+        spawned++;
+        return id;
+    }
+
+    private void addAgent(int id, int node) {
+        if (agentCount == agentIds.length) {
+            agentIds = Arrays.copyOf(agentIds, agentCount * 2);
+            agentNodes = Arrays.copyOf(agentNodes, agentCount * 2);
+            migrating = Arrays.copyOf(migrating, agentCount * 2);
+        }
+        agentIds[agentCount] = id;
+        agentNodes[agentCount] = node;
+        migrating[agentCount] = false;
+        agentCount++;
+    }
+
+    /**
+     * Reports burned owned nodes, live agents, agents created here and occupied owned nodes.
+     */
+    private void writeTotals(DataOutputStream out) throws IOException {
+        long burned = 0;
+        int occupied = 0;
+        for (int node = starts[index]; node < starts[index + 1]; node++) {
+            if (graph.getStateCode(node) == CompactGraph.ON_FIRE) burned++;
+            if (graph.hasAgent(node)) occupied++;
+        }
+        out.writeLong(burned);
+        out.writeInt(agentCount);
+        out.writeInt(spawned);
+        out.writeInt(occupied);
+    }
+
+    /**
+     * Records bound for one other worker: mirrored boundary states, arriving agents and
+     * answers to moves. Each section is sent as its record count, its byte length and its
+     * records, so the coordinator can relay sections without decoding them.
+     */
+    static final class Outbound {
+        private final Section updates = new Section();
+        private final Section requests = new Section();
+        private final Section replies = new Section();
+
+        void update(int node, byte state, int occupant) {
+            updates.count++;
+            updates.writeInt(node);
+            updates.writeByte(state);
+            updates.writeInt(occupant);
+        }
+
+        void request(byte kind, int agentId, int from, int to, int source) {
+            requests.count++;
+            requests.writeByte(kind);
+            requests.writeInt(agentId);
+            requests.writeInt(from);
+            requests.writeInt(to);
+            requests.writeInt(source);
+        }
+
+        void reply(int agentId, int from, boolean accepted) {
+            replies.count++;
+            replies.writeInt(agentId);
+            replies.writeInt(from);
+            replies.writeByte(accepted ? 1 : 0);
+        }
+
+        /**
+         * Appends another batch's records, keeping their order after this batch's.
+         */
+        void readFrom(DataInputStream in) throws IOException {
+            updates.readFrom(in);
+            requests.readFrom(in);
+            replies.readFrom(in);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            updates.writeTo(out);
+            requests.writeTo(out);
+            replies.writeTo(out);
+        }
+    }
+
+    /**
+     * A counted run of records.
+     */
+    private static final class Section {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int count = 0;
+
+        void writeByte(int value) {
+            bytes.write(value);
+        }
+
+        void writeInt(int value) {
+            bytes.write(value >>> 24);
+            bytes.write(value >>> 16);
+            bytes.write(value >>> 8);
+            bytes.write(value);
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            count += in.readInt();
+            byte[] records = new byte[in.readInt()];
+            in.readFully(records);
+            bytes.write(records);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(count);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package fireSimulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless entry point that splits one network across several worker processes.
+ * Usage: PartitionedSimulation [--workers=N] [--ticks=N] [--seed=S] network.txt
+ * The coordinator listens on an ephemeral loopback port, starts one PartitionWorker process
+ * per partition with the same class path, and then steps every worker through the same tick.
+ * After each tick it relays what each worker sent for the others: boundary node states,
+ * agents moving or cloning across the boundary, and answers to those moves. It never decodes
+ * the records and keeps no copy of the network. Records reach each worker in the order of
+ * their senders' indices, so a run depends only on the network, the seed and the number of
+ * workers, not on process timing. The coordinator's fireSimulation.* system properties, such
+ * as the clone admission limits, are passed on to every worker.
+ */
+public class PartitionedSimulation implements Closeable {
+    private static final int DEFAULT_WORKERS = 2;
+    private static final int DEFAULT_TICKS = 300;
+    private static final long DEFAULT_SEED = 1;
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private final List<Process> processes = new ArrayList<>();
+    private final DataInputStream[] inputs;
+    private final DataOutputStream[] outputs;
+    private final Socket[] sockets;
+    private PartitionWorker.Outbound[] pending;
+    private int tick = 0;
+
+    /**
+     * Starts the worker processes and waits until every one has connected.
+     * @param configFile The network configuration file, read by each worker.
+     * @param workers The number of partitions.
+     * @param seed The seed of the run.
+     * @throws IOException If a worker cannot be started or does not connect.
+     */
+    public PartitionedSimulation(String configFile, int workers, long seed) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker: " + workers);
+        }
+        inputs = new DataInputStream[workers];
+        outputs = new DataOutputStream[workers];
+        sockets = new Socket[workers];
+        pending = emptyBatches(workers);
+
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int i = 0; i < workers; i++) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+                for (String name : System.getProperties().stringPropertyNames()) {
+                    if (name.startsWith("fireSimulation.")) {
+                        command.add("-D" + name + "=" + System.getProperty(name));
+                    }
+                }
+                command.addAll(List.of(PartitionWorker.class.getName(), String.valueOf(server.getLocalPort()),
+                        String.valueOf(i), String.valueOf(workers), String.valueOf(seed), configFile));
+                processes.add(new ProcessBuilder(command).inheritIO().start());
+            }
+            for (int i = 0; i < workers; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                int index = in.readInt();
+                if (index < 0 || index >= workers || sockets[index] != null) {
+                    socket.close();
+                    throw new IOException("Unexpected worker index " + index);
+                }
+                sockets[index] = socket;
+                inputs[index] = in;
+                outputs[index] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            }
+        } catch (IOException e) {
+            stopWorkers();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a partitioned simulation described by the command-line arguments and prints its totals.
+     * @param args Options followed by the configuration file path.
+     */
+    public static void main(String[] args) {
+        CommandLine.run(args, "PartitionedSimulation [--workers=N] [--ticks=N] [--seed=S] network.txt",
+                "Partitioned run failed", arguments -> {
+            CommandLine line = CommandLine.parse(arguments, "workers", "ticks", "seed");
+            int workers = line.getInt("workers", DEFAULT_WORKERS);
+            int ticks = line.getInt("ticks", DEFAULT_TICKS);
+            long seed = line.getLong("seed", DEFAULT_SEED);
+            String configFile = line.getFile("configuration file");
+
+            try (PartitionedSimulation simulation = new PartitionedSimulation(configFile, workers, seed)) {
+                long started = System.nanoTime();
+                simulation.run(ticks);
+                Totals totals = simulation.finish();
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                System.out.println("workers=" + workers + " ticks=" + ticks + " burned=" + totals.burned
+                        + " agentsAlive=" + totals.agentsAlive + " agentsSpawned=" + totals.agentsSpawned
+                        + " elapsedMs=" + millis);
+            }
+        });
+    }
+
+    /**
+     * Steps every worker through a number of ticks.
+     * @param ticks The number of ticks to run.
+     * @throws IOException If a worker fails or disconnects.
+     */
+    public void run(int ticks) throws IOException {
+        for (int i = 0; i < ticks; i++) {
+            send(tick++);
+            PartitionWorker.Outbound[] next = emptyBatches(outputs.length);
+            for (DataInputStream in : inputs) {
+                for (PartitionWorker.Outbound batch : next) {
+                    batch.readFrom(in);
+                }
+            }
+            pending = next;
+        }
+    }
+
+    /**
+     * Delivers the last tick's answers to moves, stops the workers and sums their totals.
+     * Agents still waiting for an answer are counted by the worker they are on.
+     * @return The totals over all partitions.
+     * @throws IOException If a worker fails or disconnects.
+     */
+    public Totals finish() throws IOException {
+        send(PartitionWorker.STOP);
+        Totals totals = new Totals();
+        for (DataInputStream in : inputs) {
+            totals.burned += in.readLong();
+            int alive = in.readInt();
+            totals.agentsAlive += alive;
+            totals.agentsSpawned += in.readInt();
+            if (in.readInt() != alive) {
+                totals.consistent = false;
+            }
+        }
+        return totals;
+    }
+
+    private void send(int tickNumber) throws IOException {
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].writeInt(tickNumber);
+            pending[i].writeTo(outputs[i]);
+            outputs[i].flush();
+        }
+    }
+
+    private static PartitionWorker.Outbound[] emptyBatches(int workers) {
+        PartitionWorker.Outbound[] batches = new PartitionWorker.Outbound[workers];
+        for (int i = 0; i < workers; i++) {
+            batches[i] = new PartitionWorker.Outbound();
+        }
+        return batches;
+    }
+
+    /**
+     * Closes the connections and waits for the workers to exit, killing any that do not.
+     */
+    @Override
+    public void close() {
+        stopWorkers();
+    }
+
+    private void stopWorkers() {
+        for (Socket socket : sockets) {
+            if (socket == null) continue;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The worker exits on its own once the connection is gone.
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Totals of a partitioned run, summed over the workers.
+     */
+    public static class Totals {
+        private long burned;
+        private long agentsAlive;
+        private long agentsSpawned;
+        private boolean consistent = true;
+
+        public long getBurned() {
+            return burned;
+        }
+
+        public long getAgentsAlive() {
+            return agentsAlive;
+        }
+
+        public long getAgentsSpawned() {
+            return agentsSpawned;
+        }
+
+        /**
+         * Checks that every worker had exactly one live agent per occupied node it owns.
+         * @return true if no agent was lost or duplicated across a boundary.
+         */
+        public boolean isConsistent() {
+            return consistent;
+        }
+    }
+}
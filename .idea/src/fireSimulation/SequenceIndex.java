@@ -0,0 +1,167 @@
+package fireSimulation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from an int key to the ascending list of log sequence numbers
+ * recorded under that key. Keys and sequence numbers are stored in primitive arrays,
+ * so adding a sequence number does not allocate except when a list or the table grows.
+ */
+class SequenceIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_LIST_SIZE = 4;
+
+    private int[] keys;
+    private long[][] lists;
+    private int[] sizes;
+    private int count;
+
+    /**
+     * Constructs an empty index.
+     */
+    SequenceIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        lists = new long[capacity][];
+        sizes = new int[capacity];
+        count = 0;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go.
+     * @param key The key.
+     * @return The slot index.
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (lists[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Records a sequence number under a key. Sequence numbers must be added in ascending order.
+     * @param key The key.
+     * @param sequence The sequence number.
+     */
+    void add(int key, long sequence) {
+        int slot = slot(key);
+        if (lists[slot] == null) {
+            if ((count + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+                slot = slot(key);
+            }
+            keys[slot] = key;
+            lists[slot] = new long[INITIAL_LIST_SIZE];
+            count++;
+        }
+        long[] list = lists[slot];
+        if (sizes[slot] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            lists[slot] = list;
+        }
+        list[sizes[slot]++] = sequence;
+    }
+
+    /**
+     * Appends every sequence number recorded under a key that is at least {@code fromSequence}.
+     * @param key The key.
+     * @param fromSequence The smallest sequence number wanted.
+     * @param out Receives the matching sequence numbers in ascending order.
+     */
+    void copySince(int key, long fromSequence, LongList out) {
+        int slot = slot(key);
+        long[] list = lists[slot];
+        if (list == null) return;
+
+        int size = sizes[slot];
+        int start = Arrays.binarySearch(list, 0, size, fromSequence);
+        if (start < 0) start = -start - 1;
+        for (int i = start; i < size; i++) {
+            out.add(list[i]);
+        }
+    }
+
+    /**
+     * Drops every sequence number below {@code firstSequence}, and keys left without any.
+     * @param firstSequence The oldest sequence number still retained.
+     */
+    void evictBefore(long firstSequence) {
+        int[] oldKeys = keys;
+        long[][] oldLists = lists;
+        int[] oldSizes = sizes;
+        allocate(keys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long[] list = oldLists[i];
+            if (list == null) continue;
+
+            int size = oldSizes[i];
+            int start = Arrays.binarySearch(list, 0, size, firstSequence);
+            if (start < 0) start = -start - 1;
+            if (start == size) continue;
+
+            System.arraycopy(list, start, list, 0, size - start);
+            insert(oldKeys[i], list, size - start);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[][] oldLists = lists;
+        int[] oldSizes = sizes;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldLists[i] != null) {
+                insert(oldKeys[i], oldLists[i], oldSizes[i]);
+            }
+        }
+    }
+
+    private void insert(int key, long[] list, int size) {
+        int slot = slot(key);
+        keys[slot] = key;
+        lists[slot] = list;
+        sizes[slot] = size;
+        count++;
+    }
+
+    /**
+     * Removes every key.
+     */
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Minimal growable list of primitive longs.
+     */
+    static class LongList {
+        private long[] values = new long[16];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package fireSimulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Saves and resumes a {@link CompactSimulation} between ticks.
+ * A checkpoint holds everything needed to continue the run exactly: every node's state,
+ * occupant, fire timer and last visit, every agent's ID and position, the next agent ID, the
+ * tick, the walk policy and the random source. Arrays are streamed through a large direct buffer, so even
+ * million-node graphs are written at disk speed. The file is written next to its
+ * destination and moved into place, so a crash never leaves a half-written checkpoint.
+ */
+public final class SimulationCheckpoint {
+    /** File magic, "FSC2". */
+    private static final int MAGIC = 0x46534332;
+    /** Magic of the first format, which had no walk policy or visits. */
+    private static final int MAGIC_V1 = 0x46534331;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SimulationCheckpoint() {
+    }
+
+    /**
+     * Writes a checkpoint of a simulation. Must not run concurrently with {@link CompactSimulation#tick()}.
+     * @param simulation The simulation to save.
+     * @param file The checkpoint file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void save(CompactSimulation simulation, Path file) throws IOException {
+        CompactGraph graph = simulation.getGraph();
+        int n = graph.size();
+        int agents = simulation.getAgentCount();
+        byte[] random = serializeRandom(simulation.getRandom());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(n);
+            out.putInt(graph.edgeCount());
+            out.putInt(simulation.getTick());
+            out.putInt(simulation.getAgentsSpawned());
+            out.putInt(agents);
+            out.put((byte) graph.getWalkPolicy().ordinal());
+            out.putInt(random.length);
+            for (byte b : random) out.put(b);
+            for (int i = 0; i < n; i++) out.put(graph.getStateCode(i));
+            for (int i = 0; i < n; i++) out.putInt(graph.getOccupant(i));
+            for (int i = 0; i < n; i++) out.putInt(graph.getFireTimer(i));
+            for (int i = 0; i < n; i++) out.putInt(graph.getLastVisit(i));
+            for (int i = 0; i < agents; i++) out.putInt(simulation.getAgentId(i));
+            for (int i = 0; i < agents; i++) out.putInt(simulation.getAgentNode(i));
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Resumes a simulation from a checkpoint, in this process or a new one.
+     * @param graph The graph the checkpoint was taken on, freshly loaded from the same configuration.
+     * @param seed The seed the original run was constructed with.
+     * @param file The checkpoint file.
+     * @return A simulation positioned at the checkpoint's tick.
+     * @throws IOException If the file cannot be read or does not match the graph.
+     */
+    public static CompactSimulation resume(CompactGraph graph, long seed, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            int magic = in.getInt();
+            if (magic == MAGIC_V1) {
+                throw new IOException("Checkpoint was written by an older version and cannot be resumed: " + file);
+            }
+            if (magic != MAGIC) {
+                throw new IOException("Not a simulation checkpoint: " + file);
+            }
+            int n = in.getInt();
+            int edges = in.getInt();
+            if (n != graph.size() || edges != graph.edgeCount()) {
+                throw new IOException("Checkpoint is for a graph with " + n + " nodes and " + edges
+                        + " edges, not " + graph.size() + " and " + graph.edgeCount());
+            }
+            int tick = in.getInt();
+            int nextAgentId = in.getInt();
+            int agents = in.getInt();
+            int policy = in.get();
+            if (policy < 0 || policy >= CompactGraph.WalkPolicy.values().length) {
+                throw new IOException("Unknown walk policy " + policy + " in checkpoint");
+            }
+            byte[] randomBytes = new byte[in.getInt()];
+            for (int i = 0; i < randomBytes.length; i++) randomBytes[i] = in.get();
+
+            byte[] states = new byte[n];
+            int[] occupants = new int[n];
+            int[] fireTimers = new int[n];
+            int[] visits = new int[n];
+            int[] ids = new int[agents];
+            int[] nodes = new int[agents];
+            for (int i = 0; i < n; i++) states[i] = in.get();
+            for (int i = 0; i < n; i++) occupants[i] = in.getInt();
+            for (int i = 0; i < n; i++) fireTimers[i] = in.getInt();
+            for (int i = 0; i < n; i++) visits[i] = in.getInt();
+            for (int i = 0; i < agents; i++) ids[i] = in.getInt();
+            for (int i = 0; i < agents; i++) nodes[i] = in.getInt();
+
+            CompactSimulation simulation = new CompactSimulation(graph, seed);
+            graph.restore(states, occupants, fireTimers, tick);
+            graph.restoreVisits(visits);
+            graph.setWalkPolicy(CompactGraph.WalkPolicy.values()[policy]);
+            simulation.restoreRun(tick, nextAgentId, deserializeRandom(randomBytes), ids, nodes);
+            return simulation;
+        }
+    }
+
+    private static byte[] serializeRandom(Random random) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Random deserializeRandom(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Random) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Corrupt random state in checkpoint", e);
+        }
+    }
+
+    /**
+     * Buffered primitive writer over a file channel.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void put(byte value) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered primitive reader over a file channel.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        byte get() throws IOException {
+            fill(1);
+            return buffer.get();
+        }
+
+        int getInt() throws IOException {
+            fill(4);
+            return buffer.getInt();
+        }
+
+        private void fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) throw new EOFException("Truncated checkpoint");
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package fireSimulation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Virtual time for the simulation. Agents and engines wait on this clock instead of sleeping
+ * real milliseconds, so the speed can change at any moment (including fractional speeds and
+ * {@link #MAX_SPEED}) and a pause suspends every waiter in place instead of stopping threads.
+ * At speed 1 one {@link #TICK_NANOS} of virtual time passes per real second.
+ * The mapping from real to virtual time is an immutable epoch published through a volatile
+ * field, so reading the time and waiting take no lock. A speed change only publishes a new
+ * epoch and wakes nobody: waiters park for at most {@link #MAX_PARK_NANOS} at a time and
+ * re-read the epoch when they wake, so every waiter follows a change within that bound, each
+ * at its own moment instead of all at once. A paused waiter blocks until the clock resumes.
+ * Sensor tasks have to wait on the same clock as agents, or fire spread and agent movement
+ * drift apart when the speed changes.
+ */
+public class SimulationClock {
+    /** Virtual length of one simulation step. */
+    public static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Speed at which waits only yield the thread instead of waiting. */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+    /** Longest a waiter parks before it re-reads the speed. */
+    public static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private static final SimulationClock shared = new SimulationClock(1);
+
+    private volatile Epoch epoch;
+
+    /**
+     * Constructs a running clock.
+     * @param speed Virtual seconds per real second, or {@link #MAX_SPEED}.
+     */
+    public SimulationClock(double speed) {
+        checkSpeed(speed);
+        this.epoch = new Epoch(0, System.nanoTime(), speed, null);
+    }
+
+    /**
+     * Gets the clock shared by the GUI and its agents.
+     * @return The shared clock.
+     */
+    public static SimulationClock shared() {
+        return shared;
+    }
+
+    /**
+     * Changes the speed. Waiters pick up the new speed within {@link #MAX_PARK_NANOS}.
+     * @param newSpeed Virtual seconds per real second, or {@link #MAX_SPEED}.
+     */
+    public synchronized void setSpeed(double newSpeed) {
+        checkSpeed(newSpeed);
+        Epoch current = epoch;
+        long real = System.nanoTime();
+        epoch = new Epoch(current.virtualAt(real), real, newSpeed, current.resumed);
+    }
+
+    public double getSpeed() {
+        return epoch.speed;
+    }
+
+    /**
+     * Freezes virtual time; every waiter stays blocked until {@link #resume()}.
+     */
+    public synchronized void pause() {
+        Epoch current = epoch;
+        if (current.isPaused()) return;
+
+        long real = System.nanoTime();
+        epoch = new Epoch(current.virtualAt(real), real, current.speed, new CountDownLatch(1));
+    }
+
+    /**
+     * Lets virtual time run again from where it was paused.
+     */
+    public synchronized void resume() {
+        Epoch current = epoch;
+        if (!current.isPaused()) return;
+
+        epoch = new Epoch(current.baseVirtual, System.nanoTime(), current.speed, null);
+        current.resumed.countDown();
+    }
+
+    public boolean isPaused() {
+        return epoch.isPaused();
+    }
+
+    /**
+     * Gets the current virtual time. At {@link #MAX_SPEED} it advances at real-time rate.
+     * @return Virtual nanoseconds since the clock was created.
+     */
+    public long now() {
+        return epoch.virtualAt(System.nanoTime());
+    }
+
+    /**
+     * Waits until a span of virtual time has passed. At {@link #MAX_SPEED} it yields the
+     * thread once and returns, unless the clock is paused, so a loop stepping at full speed
+     * still lets other tasks on its carrier or core run between steps.
+     * @param virtualNanos The virtual time to wait.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void sleep(long virtualNanos) throws InterruptedException {
+        long deadline = now() + virtualNanos;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Epoch current = epoch;
+            if (current.isPaused()) {
+                current.resumed.await();
+                continue;
+            }
+            if (current.speed == MAX_SPEED) {
+                Thread.yield();
+                return;
+            }
+
+            long remaining = deadline - current.virtualAt(System.nanoTime());
+            if (remaining <= 0) return;
+
+            LockSupport.parkNanos(this, Math.min(MAX_PARK_NANOS, Math.max(1, (long) (remaining / current.speed))));
+        }
+    }
+
+    /**
+     * Waits while the clock is paused.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void awaitRunning() throws InterruptedException {
+        Epoch current;
+        while ((current = epoch).isPaused()) {
+            current.resumed.await();
+        }
+    }
+
+    private static void checkSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+    }
+
+    /**
+     * One linear stretch of the real-to-virtual mapping, replaced on every speed change,
+     * pause and resume.
+     */
+    private static final class Epoch {
+        private final long baseVirtual;
+        private final long baseReal;
+        private final double speed;
+        /** Released when the clock resumes; null while the clock runs. */
+        private final CountDownLatch resumed;
+
+        Epoch(long baseVirtual, long baseReal, double speed, CountDownLatch resumed) {
+            this.baseVirtual = baseVirtual;
+            this.baseReal = baseReal;
+            this.speed = speed;
+            this.resumed = resumed;
+        }
+
+        boolean isPaused() {
+            return resumed != null;
+        }
+
+        long virtualAt(long real) {
+            if (resumed != null) return baseVirtual;
+
+            double rate = speed == MAX_SPEED ? 1 : speed;
+            return baseVirtual + (long) ((real - baseReal) * rate);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package fireSimulation;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of the simulation internals: agent steps, clones, failed move claims,
+ * log appends, executor queue depth and the duration of agent steps, compact ticks and FX
+ * refreshes. Agent threads count every step as it happens; a {@link CompactSimulation} adds its
+ * counts once per tick.
+ * Counters are {@link LongAdder}s and are always maintained. Latency histograms are only
+ * recorded while someone is looking: the first scrape turns them on and they switch off
+ * again after {@link #IDLE_TIMEOUT_MILLIS} without one, so an unobserved run pays a single
+ * volatile read per timed call.
+ * The metrics are published as the {@code fireSimulation:type=SimulationMetrics} MXBean and,
+ * if the system property {@code fireSimulation.metrics.port} is set, in Prometheus text
+ * format at {@code http://127.0.0.1:<port>/metrics}.
+ */
+public final class SimulationMetrics {
+    /** Histograms stop recording this long after the last scrape. */
+    public static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String OBJECT_NAME = "fireSimulation:type=SimulationMetrics";
+
+    private static final LongAdder agentSteps = new LongAdder();
+    private static final LongAdder clonesCreated = new LongAdder();
+    private static final LongAdder moveAttempts = new LongAdder();
+    private static final LongAdder movesCompleted = new LongAdder();
+    private static final LongAdder moveClaimFailures = new LongAdder();
+    private static final LongAdder logAppends = new LongAdder();
+    private static final LongAdder agentParks = new LongAdder();
+    private static final LongAdder tasksSubmitted = new LongAdder();
+    private static final LongAdder tasksDequeued = new LongAdder();
+    private static final AtomicInteger runningAgents = new AtomicInteger();
+    private static final Histogram stepLatency = new Histogram();
+    private static final Histogram tickLatency = new Histogram();
+    private static final Histogram fxPanelRefresh = new Histogram();
+    private static final Histogram fxLogRefresh = new Histogram();
+
+    private static volatile boolean recording = false;
+    private static volatile long lastScrapeMillis;
+    private static Thread idleWatcher;
+    private static HttpServer server;
+
+    private SimulationMetrics() {
+    }
+
+    public static void agentStepped() {
+        agentSteps.increment();
+    }
+
+    public static void cloneCreated() {
+        clonesCreated.increment();
+    }
+
+    public static void moveAttempted() {
+        moveAttempts.increment();
+    }
+
+    public static void moveCompleted() {
+        movesCompleted.increment();
+    }
+
+    /**
+     * Counts a move whose target could not be claimed because another agent got there first.
+     */
+    public static void moveClaimFailed() {
+        moveClaimFailures.increment();
+    }
+
+    /**
+     * Counts entries appended to the log.
+     * @param count The number of new entries.
+     */
+    public static void logAppended(int count) {
+        logAppends.add(count);
+    }
+
+    /**
+     * Counts an idle agent parking until a neighbor changes instead of polling.
+     */
+    public static void agentParked() {
+        agentParks.increment();
+    }
+
+    public static void agentStarted() {
+        runningAgents.incrementAndGet();
+    }
+
+    public static void agentStopped() {
+        runningAgents.decrementAndGet();
+    }
+
+    /**
+     * Counts the work of one {@link CompactSimulation} tick in bulk, so the tick loop adds
+     * to each counter once instead of once per agent.
+     * @param steps Agents stepped.
+     * @param clones Clones placed.
+     * @param attempts Moves attempted.
+     * @param completed Moves that succeeded; the others lost their target to another agent or the fire.
+     */
+    public static void ticked(int steps, int clones, long attempts, long completed) {
+        agentSteps.add(steps);
+        clonesCreated.add(clones);
+        moveAttempts.add(attempts);
+        movesCompleted.add(completed);
+        moveClaimFailures.add(attempts - completed);
+    }
+
+    /**
+     * Wraps an executor so that the tasks submitted but not yet started are counted as its
+     * queue depth, whatever kind of executor it is. A task leaves the queue when it starts
+     * or when {@link ExecutorService#shutdownNow()} drops it.
+     * @param executor The executor running sensor and agent tasks.
+     * @return The executor to submit the tasks to.
+     */
+    public static ExecutorService instrument(ExecutorService executor) {
+        return new CountingExecutor(executor);
+    }
+
+    /**
+     * Starts timing an operation.
+     * @return The start time to hand to a histogram's {@link Histogram#record(long)}, or 0
+     *         if histograms are not recording.
+     */
+    public static long startTimer() {
+        return recording ? System.nanoTime() : 0;
+    }
+
+    public static Histogram stepLatency() {
+        return stepLatency;
+    }
+
+    public static Histogram tickLatency() {
+        return tickLatency;
+    }
+
+    public static Histogram fxPanelRefresh() {
+        return fxPanelRefresh;
+    }
+
+    public static Histogram fxLogRefresh() {
+        return fxLogRefresh;
+    }
+
+    /**
+     * Registers the MXBean and, if {@code fireSimulation.metrics.port} is set, starts the
+     * HTTP endpoint. Calling it again has no effect.
+     */
+    public static synchronized void publish() {
+        MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!mbeans.isRegistered(name)) {
+                mbeans.registerMBean(new StandardMBean(new View(), MetricsMXBean.class, true), name);
+            }
+        } catch (JMException e) {
+            System.err.println("Cannot register simulation metrics MXBean: " + e.getMessage());
+        }
+
+        Integer port = Integer.getInteger("fireSimulation.metrics.port");
+        if (port != null && server == null) {
+            try {
+                startHttp(port);
+            } catch (IOException e) {
+                System.err.println("Cannot start metrics endpoint on port " + port + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Serves the metrics in Prometheus text format on the loopback interface.
+     * @param port The TCP port; 0 picks a free one.
+     * @return The port actually bound.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static synchronized int startHttp(int port) throws IOException {
+        if (server != null) return server.getAddress().getPort();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the HTTP endpoint if it is running. Its dispatcher thread is not a daemon, so
+     * this must be called on shutdown for the JVM to exit.
+     */
+    public static synchronized void stopHttp() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * Renders every metric in Prometheus text exposition format, and keeps histograms recording.
+     * @return The exposition text.
+     */
+    public static String scrape() {
+        markScraped();
+        StringBuilder text = new StringBuilder(4096);
+        counter(text, "firesim_agent_steps_total", "Agent steps performed.", agentSteps.sum());
+        counter(text, "firesim_agent_clones_total", "Agents created by cloning.", clonesCreated.sum());
+        counter(text, "firesim_agent_move_attempts_total", "Agent moves attempted.", moveAttempts.sum());
+        counter(text, "firesim_agent_moves_completed_total", "Agent moves that succeeded.", movesCompleted.sum());
+        counter(text, "firesim_agent_move_claim_failures_total",
+                "Agent moves aborted because the target was claimed by another agent.", moveClaimFailures.sum());
+        counter(text, "firesim_agent_parks_total", "Times an idle agent parked waiting for a neighbor to change.",
+                agentParks.sum());
+        counter(text, "firesim_log_appends_total", "Entries appended to the event log.", logAppends.sum());
+        CloneAdmission admission = CloneAdmission.shared();
+        text.append("# HELP firesim_clones_rejected_total Clones refused by admission control.\n")
+                .append("# TYPE firesim_clones_rejected_total counter\n");
+        for (CloneAdmission.Verdict verdict : CloneAdmission.Verdict.values()) {
+            if (verdict == CloneAdmission.Verdict.ADMITTED) continue;
+            text.append("firesim_clones_rejected_total{reason=\"").append(verdict.name().toLowerCase(Locale.ROOT))
+                    .append("\"} ").append(admission.getRejected(verdict)).append('\n');
+        }
+        gauge(text, "firesim_clones_live", "Clones holding a place in the admission budget.", admission.getLiveClones());
+        gauge(text, "firesim_agents_running", "Agent tasks currently running.", runningAgents.get());
+        gauge(text, "firesim_executor_queue_depth", "Tasks waiting in the simulation executor.", getExecutorQueueDepth());
+        stepLatency.write(text, "firesim_agent_step_seconds", "Duration of one agent step.");
+        tickLatency.write(text, "firesim_compact_tick_seconds", "Duration of one compact simulation tick.");
+        fxPanelRefresh.write(text, "firesim_fx_panel_refresh_seconds", "Duration of SimulationPanel.updateFxPanel.");
+        fxLogRefresh.write(text, "firesim_fx_log_refresh_seconds", "Duration of LogPanel.updateFxLog.");
+        return text.toString();
+    }
+
+    private static long getExecutorQueueDepth() {
+        return tasksSubmitted.sum() - tasksDequeued.sum();
+    }
+
+    private static void counter(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" gauge\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Turns histogram recording on and starts the watcher that turns it off again when scrapes stop.
+     */
+    private static void markScraped() {
+        lastScrapeMillis = System.currentTimeMillis();
+        if (recording) return;
+
+        recording = true;
+        synchronized (SimulationMetrics.class) {
+            if (idleWatcher != null) return;
+
+            idleWatcher = new Thread(SimulationMetrics::watchIdle, "metrics-idle-watcher");
+            idleWatcher.setDaemon(true);
+            idleWatcher.start();
+        }
+    }
+
+    private static void watchIdle() {
+        while (true) {
+            try {
+                Thread.sleep(IDLE_TIMEOUT_MILLIS / 4);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (System.currentTimeMillis() - lastScrapeMillis > IDLE_TIMEOUT_MILLIS) {
+                recording = false;
+            }
+        }
+    }
+
+    /**
+     * Latency histogram with power-of-two microsecond buckets, from 1 us to about 4 s.
+     * Recording is one {@link LongAdder} increment per bucket and sum, with no locking.
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 23;
+        private final LongAdder[] counts = new LongAdder[BUCKETS + 1];
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records the time elapsed since a {@link SimulationMetrics#startTimer()} call.
+         * @param startNanos The value returned by startTimer; 0 records nothing.
+         */
+        public void record(long startNanos) {
+            if (startNanos == 0) return;
+
+            long nanos = System.nanoTime() - startNanos;
+            long micros = nanos / 1000;
+            // Bucket i holds durations up to 2^i microseconds; the last one is unbounded.
+            int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+            counts[Math.min(bucket, BUCKETS)].increment();
+            sumNanos.add(nanos);
+        }
+
+        public long getCount() {
+            long total = 0;
+            for (LongAdder count : counts) {
+                total += count.sum();
+            }
+            return total;
+        }
+
+        /**
+         * Gets the mean recorded duration.
+         * @return The mean in microseconds, or 0 if nothing was recorded.
+         */
+        public double getMeanMicros() {
+            long count = getCount();
+            return count == 0 ? 0 : sumNanos.sum() / 1000.0 / count;
+        }
+
+        /**
+         * Estimates a quantile from the buckets.
+         * @param quantile The quantile, between 0 and 1.
+         * @return The upper bound of the bucket holding the quantile, in microseconds.
+         */
+        public long getQuantileMicros(double quantile) {
+            long count = getCount();
+            if (count == 0) return 0;
+
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i].sum();
+                if (seen >= rank) return 1L << i;
+            }
+            return Long.MAX_VALUE;
+        }
+
+        void write(StringBuilder text, String name, String help) {
+            text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                    .append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulative += counts[i].sum();
+                text.append(name).append("_bucket{le=\"")
+                        .append(String.format(Locale.ROOT, "%.6f", (1L << i) / 1e6))
+                        .append("\"} ").append(cumulative).append('\n');
+            }
+            cumulative += counts[BUCKETS].sum();
+            text.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n')
+                    .append(name).append("_sum ").append(String.format(Locale.ROOT, "%.9f", sumNanos.sum() / 1e9)).append('\n')
+                    .append(name).append("_count ").append(cumulative).append('\n');
+        }
+    }
+
+    /**
+     * Executor that counts its tasks in and out of the queue for {@link #getExecutorQueueDepth()}.
+     */
+    private static final class CountingExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        CountingExecutor(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasksSubmitted.increment();
+            try {
+                delegate.execute(new Counted(task));
+            } catch (RejectedExecutionException e) {
+                tasksDequeued.increment();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> dropped = delegate.shutdownNow();
+            tasksDequeued.add(dropped.size());
+            return dropped;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * A task that leaves the queue count when it starts.
+     */
+    private static final class Counted implements Runnable {
+        private final Runnable task;
+
+        Counted(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            tasksDequeued.increment();
+            task.run();
+        }
+    }
+
+    /**
+     * Management interface published over JMX.
+     */
+    public interface MetricsMXBean {
+        long getAgentSteps();
+        long getClonesCreated();
+        long getMoveAttempts();
+        long getMovesCompleted();
+        long getMoveClaimFailures();
+        long getLogAppends();
+        long getAgentParks();
+        long getClonesRejected();
+        int getLiveClones();
+        int getRunningAgents();
+        long getExecutorQueueDepth();
+        double getStepMeanMicros();
+        long getStepP99Micros();
+        double getTickMeanMicros();
+        long getTickP99Micros();
+        double getFxPanelRefreshMeanMicros();
+        long getFxPanelRefreshP99Micros();
+        double getFxLogRefreshMeanMicros();
+        long getFxLogRefreshP99Micros();
+    }
+
+    /**
+     * MXBean implementation; reading a latency attribute counts as a scrape.
+     */
+    private static final class View implements MetricsMXBean {
+        @Override public long getAgentSteps() { return agentSteps.sum(); }
+        @Override public long getClonesCreated() { return clonesCreated.sum(); }
+        @Override public long getMoveAttempts() { return moveAttempts.sum(); }
+        @Override public long getMovesCompleted() { return movesCompleted.sum(); }
+        @Override public long getMoveClaimFailures() { return moveClaimFailures.sum(); }
+        @Override public long getLogAppends() { return logAppends.sum(); }
+        @Override public long getAgentParks() { return agentParks.sum(); }
+        @Override public long getClonesRejected() { return CloneAdmission.shared().getRejectedTotal(); }
+        @Override public int getLiveClones() { return CloneAdmission.shared().getLiveClones(); }
+        @Override public int getRunningAgents() { return runningAgents.get(); }
+        @Override public long getExecutorQueueDepth() { return SimulationMetrics.getExecutorQueueDepth(); }
+
+        @Override
+        public double getStepMeanMicros() {
+            markScraped();
+            return stepLatency.getMeanMicros();
+        }
+
+        @Override
+        public long getStepP99Micros() {
+            markScraped();
+            return stepLatency.getQuantileMicros(0.99);
+        }
+
+        @Override
+        public double getTickMeanMicros() {
+            markScraped();
+            return tickLatency.getMeanMicros();
+        }
+
+        @Override
+        public long getTickP99Micros() {
+            markScraped();
+            return tickLatency.getQuantileMicros(0.99);
+        }
+
+        @Override
+        public double getFxPanelRefreshMeanMicros() {
+            markScraped();
+            return fxPanelRefresh.getMeanMicros();
+        }
+
+        @Override
+        public long getFxPanelRefreshP99Micros() {
+            markScraped();
+            return fxPanelRefresh.getQuantileMicros(0.99);
+        }
+
+        @Override
+        public double getFxLogRefreshMeanMicros() {
+            markScraped();
+            return fxLogRefresh.getMeanMicros();
+        }
+
+        @Override
+        public long getFxLogRefreshP99Micros() {
+            markScraped();
+            return fxLogRefresh.getQuantileMicros(0.99);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package fireSimulation;
+
+import java.awt.Point;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics counters updated by the agents themselves where agents are created, cloned and
+ * destroyed, so they advance whether or not anything reads the log, and reading them never
+ * requires a scan of it. Counters are contention-friendly {@link LongAdder}s and can be
+ * updated from any thread; {@link #snapshot(int, int)} returns an immutable copy.
+ * Active areas are the distinct locations of those events, kept as packed coordinates.
+ */
+public class SimulationStatistics {
+    private static final SimulationStatistics shared = new SimulationStatistics();
+
+    private final LongAdder agentsCreated = new LongAdder();
+    private final LongAdder agentsCloned = new LongAdder();
+    private final LongAdder agentsDestroyed = new LongAdder();
+    private final Set<Long> areas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gets the statistics shared by the object-model agents and the log panel.
+     * @return The shared statistics.
+     */
+    public static SimulationStatistics shared() {
+        return shared;
+    }
+
+    /**
+     * Counts an agent that started running, whether it was placed at the station or cloned.
+     * @param location The agent's node location.
+     */
+    public void agentCreated(Point location) {
+        agentsCreated.increment();
+        areas.add(CompactGraph.pack(location.x, location.y));
+    }
+
+    /**
+     * Counts a clone placed on a neighbor.
+     * @param location The clone's node location.
+     */
+    public void agentCloned(Point location) {
+        agentsCloned.increment();
+        areas.add(CompactGraph.pack(location.x, location.y));
+    }
+
+    /**
+     * Counts an agent destroyed by its node igniting.
+     * @param location The agent's node location.
+     */
+    public void agentDestroyed(Point location) {
+        agentsDestroyed.increment();
+        areas.add(CompactGraph.pack(location.x, location.y));
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public void reset() {
+        agentsCreated.reset();
+        agentsCloned.reset();
+        agentsDestroyed.reset();
+        areas.clear();
+    }
+
+    /**
+     * Takes an immutable snapshot of the counters.
+     * @param activeAgents The number of agents currently running, as reported by the model.
+     * @param burnedSensors The number of sensors on fire, as reported by the model.
+     * @return The snapshot.
+     */
+    public Snapshot snapshot(int activeAgents, int burnedSensors) {
+        return new Snapshot(agentsCreated.sum(), agentsCloned.sum(), agentsDestroyed.sum(),
+                areas.size(), activeAgents, burnedSensors);
+    }
+
+    /**
+     * Immutable point-in-time copy of the simulation statistics.
+     */
+    public static final class Snapshot {
+        private final long agentsCreated;
+        private final long agentsCloned;
+        private final long agentsDestroyed;
+        private final long activeAreas;
+        private final int activeAgents;
+        private final int burnedSensors;
+
+        Snapshot(long agentsCreated, long agentsCloned, long agentsDestroyed,
+                 long activeAreas, int activeAgents, int burnedSensors) {
+            this.agentsCreated = agentsCreated;
+            this.agentsCloned = agentsCloned;
+            this.agentsDestroyed = agentsDestroyed;
+            this.activeAreas = activeAreas;
+            this.activeAgents = activeAgents;
+            this.burnedSensors = burnedSensors;
+        }
+
+        /** @return The number of agents ever started, including clones. */
+        public long getTotalAgents() { return agentsCreated; }
+
+        public long getAgentsCloned() { return agentsCloned; }
+
+        public long getAgentsDestroyed() { return agentsDestroyed; }
+
+        /** @return The number of distinct locations where an agent was created, cloned or destroyed. */
+        public long getActiveAreas() { return activeAreas; }
+
+        public int getActiveAgents() { return activeAgents; }
+
+        public int getBurnedSensors() { return burnedSensors; }
+    }
+}
@@ -0,0 +1,269 @@
+package fireSimulation;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform-grid spatial index of nodes by location, for hover hit-testing and viewport culling.
+ * Each node is stored under an integer ID in the square cell containing it, so finding the
+ * node under the mouse only inspects the few cells around the pointer, and drawing a viewport
+ * only visits the cells it overlaps. Nodes can be added at any time without a rebuild.
+ * Callers map IDs to their own node objects, e.g. the node index of a {@link CompactGraph}.
+ * Cells live in an open-addressing table keyed by their packed coordinates, so a lookup
+ * boxes nothing and hit-testing on every mouse move allocates nothing.
+ * Not thread-safe: build it before sharing it with the UI thread, or confine it to that thread.
+ */
+public class SpatialGrid {
+    private static final int INITIAL_TABLE_SIZE = 16;
+
+    private final double cellSize;
+    /** Cell table with linear probing; a null slot is empty, and keys[i] is the key of slots[i]. */
+    private long[] keys = new long[INITIAL_TABLE_SIZE];
+    private Cell[] slots = new Cell[INITIAL_TABLE_SIZE];
+    private int cellCount = 0;
+    private int size = 0;
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * Constructs an empty index.
+     * @param cellSize Side of a cell in location units; about twice the typical node spacing works well.
+     */
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Builds an index of every node of a graph, keyed by node index.
+     * The cell size is chosen so that a cell holds a few nodes on average.
+     * @param graph The graph to index.
+     * @return The index.
+     */
+    public static SpatialGrid of(CompactGraph graph) {
+        int n = graph.size();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, graph.getX(i));
+            maxX = Math.max(maxX, graph.getX(i));
+            minY = Math.min(minY, graph.getY(i));
+            maxY = Math.max(maxY, graph.getY(i));
+        }
+        double area = n == 0 ? 1 : Math.max(1.0, ((double) maxX - minX + 1) * ((double) maxY - minY + 1));
+        SpatialGrid index = new SpatialGrid(Math.max(1.0, 2 * Math.sqrt(area / Math.max(1, n))));
+        for (int i = 0; i < n; i++) {
+            index.add(i, graph.getX(i), graph.getY(i));
+        }
+        return index;
+    }
+
+    /**
+     * Adds a node.
+     * @param id The caller's ID for the node.
+     * @param x The node's x location.
+     * @param y The node's y location.
+     */
+    public void add(int id, double x, double y) {
+        int cellX = cellOf(x);
+        int cellY = cellOf(y);
+        cellAt(cellX, cellY, true).add(id, x, y);
+        minCellX = Math.min(minCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellY = Math.max(maxCellY, cellY);
+        size++;
+    }
+
+    /**
+     * Finds the node closest to a point, e.g. the one under the mouse.
+     * @param x The point's x location.
+     * @param y The point's y location.
+     * @param maxDistance Largest distance at which a node still counts as a hit.
+     * @return The ID of the closest node within maxDistance, or -1 if there is none.
+     */
+    public int nearest(double x, double y, double maxDistance) {
+        int fromX = Math.max(cellOf(x - maxDistance), minCellX);
+        int toX = Math.min(cellOf(x + maxDistance), maxCellX);
+        int fromY = Math.max(cellOf(y - maxDistance), minCellY);
+        int toY = Math.min(cellOf(y + maxDistance), maxCellY);
+        int best = -1;
+        double bestDistance = maxDistance * maxDistance;
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                Cell cell = cellAt(cx, cy, false);
+                if (cell == null) continue;
+
+                for (int i = 0; i < cell.size; i++) {
+                    double dx = cell.xs[i] - x;
+                    double dy = cell.ys[i] - y;
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = cell.ids[i];
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reports every node inside a rectangle, e.g. the visible viewport.
+     * @param minX Left edge.
+     * @param minY Top edge.
+     * @param maxX Right edge.
+     * @param maxY Bottom edge.
+     * @param out Receives the ID of every node inside, in no particular order.
+     */
+    public void query(double minX, double minY, double maxX, double maxY, IntConsumer out) {
+        int fromX = Math.max(cellOf(minX), minCellX);
+        int toX = Math.min(cellOf(maxX), maxCellX);
+        int fromY = Math.max(cellOf(minY), minCellY);
+        int toY = Math.min(cellOf(maxY), maxCellY);
+        if (fromX > toX || fromY > toY) return;
+
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cellCount) {
+            // Zoomed far out: the rectangle spans more cells than exist, so walk the occupied ones.
+            for (Cell cell : slots) {
+                if (cell != null && cell.cellX >= fromX && cell.cellX <= toX
+                        && cell.cellY >= fromY && cell.cellY <= toY) {
+                    cell.report(minX, minY, maxX, maxY, out);
+                }
+            }
+            return;
+        }
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                Cell cell = cellAt(cx, cy, false);
+                if (cell != null) {
+                    cell.report(minX, minY, maxX, maxY, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of indexed nodes.
+     * @return The node count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every node.
+     */
+    public void clear() {
+        keys = new long[INITIAL_TABLE_SIZE];
+        slots = new Cell[INITIAL_TABLE_SIZE];
+        cellCount = 0;
+        size = 0;
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+    }
+
+    private int cellOf(double coordinate) {
+        double cell = Math.floor(coordinate / cellSize);
+        return (int) Math.max(Integer.MIN_VALUE + 1, Math.min(Integer.MAX_VALUE - 1, cell));
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Looks up a cell, optionally creating it.
+     * @return The cell, or null if it is empty and create is false.
+     */
+    private Cell cellAt(int cellX, int cellY, boolean create) {
+        long key = key(cellX, cellY);
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != null) {
+            if (keys[slot] == key) return slots[slot];
+            slot = (slot + 1) & mask;
+        }
+        if (!create) return null;
+
+        Cell cell = new Cell(cellX, cellY);
+        keys[slot] = key;
+        slots[slot] = cell;
+        // Keep the table at most half full so probe runs stay short.
+        if (++cellCount * 2 > slots.length) {
+            grow();
+        }
+        return cell;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Cell[] oldSlots = slots;
+        keys = new long[oldSlots.length * 2];
+        slots = new Cell[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == null) continue;
+
+            int slot = hash(oldKeys[i]) & mask;
+            while (slots[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            slots[slot] = oldSlots[i];
+        }
+    }
+
+    /**
+     * Spreads neighboring cell keys over the table; both coordinates reach the high bits.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Nodes of one cell, in parallel primitive arrays.
+     */
+    private static final class Cell {
+        private final int cellX;
+        private final int cellY;
+        private int[] ids = new int[4];
+        private double[] xs = new double[4];
+        private double[] ys = new double[4];
+        private int size = 0;
+
+        Cell(int cellX, int cellY) {
+            this.cellX = cellX;
+            this.cellY = cellY;
+        }
+
+        void add(int id, double x, double y) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            ids[size] = id;
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        void report(double minX, double minY, double maxX, double maxY, IntConsumer out) {
+            for (int i = 0; i < size; i++) {
+                if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                    out.accept(ids[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameSeedWritesTheSameResults() throws IOException {
+        Path config = dir.resolve("grid.txt");
+        List<String> lines = new ArrayList<>();
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                lines.add("node " + x + " " + y);
+                if (x + 1 < 20) lines.add("edge " + x + " " + y + " " + (x + 1) + " " + y);
+                if (y + 1 < 20) lines.add("edge " + x + " " + y + " " + x + " " + (y + 1));
+            }
+        }
+        lines.add("station 0 0");
+        lines.add("fire 10 10");
+        Files.write(config, lines);
+
+        Path first = dir.resolve("first.csv");
+        Path second = dir.resolve("second.csv");
+        BatchRunner.main(new String[] { "--replicas=8", "--seed=5", "--out=" + first, config.toString() });
+        BatchRunner.main(new String[] { "--replicas=8", "--seed=5", "--out=" + second, config.toString() });
+
+        assertEquals(2, Files.readAllLines(first).size());
+        assertEquals(Files.readAllLines(first), Files.readAllLines(second));
+    }
+
+    @Test
+    void lineBurnsCompletelyBeforeItIsContained() throws IOException {
+        Path config = line(20);
+        Path out = dir.resolve("line.csv");
+        BatchRunner.main(new String[] { "--replicas=8", "--seed=5", "--timeout=2000", "--out=" + out, config.toString() });
+
+        String[] row = resultRow(out);
+        assertEquals("8", row[1]);
+        assertEquals("20.00", row[2], "burned mean");
+        assertEquals("20", row[3], "burned min");
+        assertEquals("20", row[4], "burned max");
+        assertEquals("8", row[11], "contained");
+    }
+
+    @Test
+    void replicaStillBurningAtTheTimeoutIsNotContained() throws IOException {
+        Path config = line(20);
+        Path out = dir.resolve("line.csv");
+        BatchRunner.main(new String[] { "--replicas=4", "--seed=5", "--timeout=5", "--out=" + out, config.toString() });
+
+        String[] row = resultRow(out);
+        assertTrue(Integer.parseInt(row[4]) < 20, "burned max " + row[4]);
+        assertEquals("5.00", row[8], "containment ticks mean");
+        assertEquals("0", row[11], "contained");
+    }
+
+    /**
+     * Writes a configuration of a straight line of sensors with the fire at one end.
+     * @param length The number of sensors.
+     * @return The configuration file.
+     */
+    private Path line(int length) throws IOException {
+        Path config = dir.resolve("line.txt");
+        List<String> lines = new ArrayList<>();
+        for (int x = 0; x < length; x++) {
+            lines.add("node " + x + " 0");
+            if (x + 1 < length) lines.add("edge " + x + " 0 " + (x + 1) + " 0");
+        }
+        lines.add("station " + (length - 1) + " 0");
+        lines.add("fire 0 0");
+        Files.write(config, lines);
+        return config;
+    }
+
+    private static String[] resultRow(Path csv) throws IOException {
+        List<String> rows = Files.readAllLines(csv);
+        assertEquals(2, rows.size());
+        return rows.get(1).split(",");
+    }
+}
@@ -0,0 +1,36 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CloneAdmissionTest {
+    @Test
+    void releasedPlacesCanBeAdmittedAgain() {
+        CloneAdmission admission = new CloneAdmission(2, 0, 0, 0, 1);
+        assertEquals(CloneAdmission.Verdict.ADMITTED, admission.tryAdmit(CloneAdmission.NO_REGION));
+        assertEquals(CloneAdmission.Verdict.ADMITTED, admission.tryAdmit(CloneAdmission.NO_REGION));
+        assertEquals(CloneAdmission.Verdict.GLOBAL_CAP, admission.tryAdmit(CloneAdmission.NO_REGION));
+
+        admission.release(CloneAdmission.NO_REGION);
+        assertEquals(1, admission.getLiveClones());
+        assertEquals(CloneAdmission.Verdict.ADMITTED, admission.tryAdmit(CloneAdmission.NO_REGION));
+    }
+
+    @Test
+    void releaseAfterResetDoesNotRaiseTheCap() {
+        CloneAdmission admission = new CloneAdmission(2, 0, 0, 0, 1);
+        admission.tryAdmit(CloneAdmission.NO_REGION);
+        admission.tryAdmit(CloneAdmission.NO_REGION);
+        admission.reset();
+
+        // Agents of the old run stop after the reset and return their places late.
+        admission.release(CloneAdmission.NO_REGION);
+        admission.release(CloneAdmission.NO_REGION);
+        assertEquals(0, admission.getLiveClones());
+
+        assertEquals(CloneAdmission.Verdict.ADMITTED, admission.tryAdmit(CloneAdmission.NO_REGION));
+        assertEquals(CloneAdmission.Verdict.ADMITTED, admission.tryAdmit(CloneAdmission.NO_REGION));
+        assertEquals(CloneAdmission.Verdict.GLOBAL_CAP, admission.tryAdmit(CloneAdmission.NO_REGION));
+    }
+}
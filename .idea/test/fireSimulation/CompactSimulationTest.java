@@ -0,0 +1,103 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactSimulationTest {
+    private static final int TICKS = 200;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameSeedWritesTheSameJournal() throws IOException {
+        byte[] first = journal(42, dir.resolve("first.fsj"));
+        byte[] second = journal(42, dir.resolve("second.fsj"));
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void agentsSpreadAndCloneAroundTheFire() {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 7);
+        for (int t = 0; t < TICKS; t++) {
+            simulation.tick();
+        }
+
+        assertTrue(simulation.getAgentsSpawned() > 1, "clones were created");
+        assertTrue(simulation.getGraph().getStateCount(CompactGraph.ON_FIRE) > 1, "the fire spread");
+    }
+
+    @Test
+    void singleThreadPoolMatchesTheSequentialRun() {
+        CompactSimulation sequential = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 9);
+        CompactSimulation cohorts = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 9);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            cohorts.setParallelism(pool);
+            cohorts.setCohortSize(16);
+            int peak = 0;
+            for (int t = 0; t < TICKS; t++) {
+                sequential.tick();
+                cohorts.tick();
+                peak = Math.max(peak, sequential.getAgentCount());
+                assertSameAgents(sequential, cohorts, t);
+            }
+            assertTrue(peak > 16, "the population spans several cohorts: " + peak);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelRunsCountOnlyPlacedClones() {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 9);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Set<Integer> seen = new HashSet<>();
+        try {
+            simulation.setParallelism(pool);
+            simulation.setCohortSize(16);
+            for (int t = 0; t < TICKS; t++) {
+                simulation.tick();
+                for (int i = 0; i < simulation.getAgentCount(); i++) {
+                    seen.add(simulation.getGraph().getOccupant(simulation.getAgentNode(i)));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Clones are listed at the end of the tick that created them, before they can burn.
+        assertEquals(simulation.getAgentsSpawned(), seen.size());
+    }
+
+    private static void assertSameAgents(CompactSimulation expected, CompactSimulation actual, int tick) {
+        assertEquals(expected.getAgentCount(), actual.getAgentCount(), "agents after tick " + tick);
+        assertEquals(expected.getAgentsSpawned(), actual.getAgentsSpawned(), "spawned after tick " + tick);
+        for (int i = 0; i < expected.getAgentCount(); i++) {
+            assertEquals(expected.getAgentNode(i), actual.getAgentNode(i), "agent " + i + " after tick " + tick);
+        }
+    }
+
+    private static byte[] journal(long seed, Path file) throws IOException {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), seed);
+        try (EventJournal journal = new EventJournal(file, 50)) {
+            simulation.setJournal(journal);
+            for (int t = 0; t < TICKS; t++) {
+                simulation.tick();
+            }
+        }
+        return Files.readAllBytes(file);
+    }
+}
@@ -0,0 +1,111 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyTilesTest {
+    private static final int TILE_SIZE = 4;
+
+    @Test
+    void everyTileStartsDirtyAndDrainsOnce() {
+        DirtyTiles tiles = new DirtyTiles(TestGraphs.grid(30, 30), TILE_SIZE);
+
+        assertEquals(64, tiles.getTileCount());
+        assertEquals(64, tiles.drain(tile -> { }));
+        assertEquals(0, tiles.drain(tile -> { }));
+    }
+
+    @Test
+    void tilesHoldTheNodesInsideTheirBounds() {
+        CompactGraph graph = TestGraphs.grid(30, 30);
+        DirtyTiles tiles = new DirtyTiles(graph, TILE_SIZE);
+
+        int[] seen = new int[1];
+        for (int tile = 0; tile < tiles.getTileCount(); tile++) {
+            long left = tiles.getTileX(tile);
+            long top = tiles.getTileY(tile);
+            int current = tile;
+            tiles.nodesIn(tile, node -> {
+                assertEquals(current, tiles.tileOf(node));
+                assertTrue(graph.getX(node) >= left && graph.getX(node) < left + TILE_SIZE, "x of node " + node);
+                assertTrue(graph.getY(node) >= top && graph.getY(node) < top + TILE_SIZE, "y of node " + node);
+                seen[0]++;
+            });
+        }
+        assertEquals(graph.size(), seen[0]);
+    }
+
+    @Test
+    void aTickDirtiesExactlyTheTilesOfChangedNodes() {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 11);
+        CompactGraph graph = simulation.getGraph();
+        DirtyTiles tiles = new DirtyTiles(graph, TILE_SIZE);
+        graph.setChangeFeed(tiles);
+        tiles.drain(tile -> { });
+
+        for (int t = 0; t < 120; t++) {
+            byte[] states = new byte[graph.size()];
+            int[] occupants = new int[graph.size()];
+            for (int node = 0; node < graph.size(); node++) {
+                states[node] = graph.getStateCode(node);
+                occupants[node] = graph.getOccupant(node);
+            }
+            simulation.tick();
+
+            Set<Integer> expected = new TreeSet<>();
+            for (int node = 0; node < graph.size(); node++) {
+                if (states[node] != graph.getStateCode(node) || occupants[node] != graph.getOccupant(node)) {
+                    expected.add(tiles.tileOf(node));
+                }
+            }
+            assertEquals(expected, drain(tiles), "tick " + t);
+        }
+    }
+
+    @Test
+    void resetDirtiesEveryTile() {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(30, 30, 15, 15), 11);
+        DirtyTiles tiles = new DirtyTiles(simulation.getGraph(), TILE_SIZE);
+        simulation.getGraph().setChangeFeed(tiles);
+        tiles.drain(tile -> { });
+
+        simulation.reset();
+
+        assertEquals(tiles.getTileCount(), tiles.drain(tile -> { }));
+    }
+
+    @Test
+    void concurrentMarksAreEachReportedOnce() {
+        DirtyTiles tiles = new DirtyTiles(TestGraphs.grid(200, 200), TILE_SIZE);
+        tiles.drain(tile -> { });
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.submit(() -> IntStream.range(0, 4 * tiles.getTileCount()).parallel()
+                    .forEach(i -> tiles.markTile(i % tiles.getTileCount()))).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Integer> reported = new ArrayList<>();
+        tiles.drain(reported::add);
+        assertEquals(tiles.getTileCount(), reported.size());
+        assertEquals(tiles.getTileCount(), new TreeSet<>(reported).size());
+        assertFalse(tiles.isDirty(0));
+    }
+
+    private static Set<Integer> drain(DirtyTiles tiles) {
+        Set<Integer> reported = new TreeSet<>();
+        tiles.drain(reported::add);
+        return reported;
+    }
+}
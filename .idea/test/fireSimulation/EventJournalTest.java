@@ -0,0 +1,144 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class EventJournalTest {
+    private static final long SEED = 11;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void seekRestoresTheStateOfEveryTick() throws IOException {
+        Path file = dir.resolve("run.fsj");
+        record(file, 120);
+
+        try (EventJournal.Reader reader = new EventJournal.Reader(file)) {
+            assertArrayEquals(new int[] {0, 25, 50, 75, 100}, reader.getSnapshotTicks());
+            for (int tick : new int[] {0, 30, 75, 119}) {
+                Replica replica = new Replica();
+                reader.seek(tick, replica);
+                assertMatchesRun(tick, replica);
+            }
+        }
+    }
+
+    @Test
+    void journalOfADeadWriterEndsAtItsLastRecord() throws IOException {
+        Path file = dir.resolve("crashed.fsj");
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(20, 20, 10, 10), SEED);
+        EventJournal journal = new EventJournal(file, 25);
+        try {
+            simulation.setJournal(journal);
+            for (int t = 0; t < 60; t++) {
+                simulation.tick();
+            }
+
+            // The writer has not closed the file, so the rest of its mapped chunk is zeros.
+            try (EventJournal.Reader reader = new EventJournal.Reader(file)) {
+                Replica replica = new Replica();
+                reader.seek(50, replica);
+                assertFalse(reader.replayUntil(Integer.MAX_VALUE, replica));
+                assertMatchesRun(60, replica);
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void truncatedRecordEndsTheJournal() throws IOException {
+        Path file = dir.resolve("torn.fsj");
+        record(file, 40);
+        long length = Files.size(file);
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length - 3);
+        }
+
+        try (EventJournal.Reader reader = new EventJournal.Reader(file)) {
+            Replica replica = new Replica();
+            reader.seek(25, replica);
+            assertFalse(reader.replayUntil(Integer.MAX_VALUE, replica));
+        }
+    }
+
+    private static void record(Path file, int ticks) throws IOException {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(20, 20, 10, 10), SEED);
+        try (EventJournal journal = new EventJournal(file, 25)) {
+            simulation.setJournal(journal);
+            for (int t = 0; t < ticks; t++) {
+                simulation.tick();
+            }
+        }
+    }
+
+    /**
+     * Compares a replayed state with a fresh run of the same seed stopped at the same tick.
+     */
+    private static void assertMatchesRun(int tick, Replica replica) {
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(20, 20, 10, 10), SEED);
+        for (int t = 0; t < tick; t++) {
+            simulation.tick();
+        }
+        CompactGraph graph = simulation.getGraph();
+        byte[] states = new byte[graph.size()];
+        int[] occupants = new int[graph.size()];
+        for (int i = 0; i < graph.size(); i++) {
+            states[i] = graph.getStateCode(i);
+            occupants[i] = graph.getOccupant(i);
+        }
+        assertArrayEquals(states, replica.states, "states at tick " + tick);
+        assertArrayEquals(occupants, replica.occupants, "occupants at tick " + tick);
+    }
+
+    /**
+     * Rebuilds node states and occupants from replayed records.
+     */
+    private static class Replica implements EventJournal.ReplayListener {
+        byte[] states;
+        int[] occupants;
+
+        @Override
+        public void snapshot(int tick, byte[] snapshotStates, int[] snapshotOccupants) {
+            states = Arrays.copyOf(snapshotStates, snapshotStates.length);
+            occupants = Arrays.copyOf(snapshotOccupants, snapshotOccupants.length);
+        }
+
+        @Override
+        public void stateChanged(int node, byte state) {
+            states[node] = state;
+            if (state == CompactGraph.ON_FIRE) occupants[node] = CompactGraph.NO_AGENT;
+        }
+
+        @Override
+        public void agentCreated(int agentId, int node) {
+            occupants[node] = agentId;
+        }
+
+        @Override
+        public void agentMoved(int agentId, int from, int to) {
+            if (occupants[from] == agentId) occupants[from] = CompactGraph.NO_AGENT;
+            occupants[to] = agentId;
+        }
+
+        @Override
+        public void agentCloned(int agentId, int parentId, int node) {
+            occupants[node] = agentId;
+        }
+
+        @Override
+        public void agentDestroyed(int agentId, int node) {
+            if (occupants[node] == agentId) occupants[node] = CompactGraph.NO_AGENT;
+        }
+    }
+}
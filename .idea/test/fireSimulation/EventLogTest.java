@@ -0,0 +1,48 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class EventLogTest {
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void idleWriterParksUntilTheNextEvent() throws InterruptedException {
+        EventLog.warn(EventLog.EventType.CLONE_REJECTED, 1, "test");
+        Thread writer = writerThread();
+        assertNotNull(writer, "the first event starts the writer");
+
+        // An idle writer waits without a timeout instead of polling the queue.
+        awaitState(writer, Thread.State.WAITING);
+        assertEquals(0, EventLog.getPendingCount());
+
+        EventLog.warn(EventLog.EventType.CLONE_REJECTED, 2, "test");
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (EventLog.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, EventLog.getPendingCount(), "the event woke the writer");
+        awaitState(writer, Thread.State.WAITING);
+    }
+
+    private static Thread writerThread() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("event-log-writer")) {
+                return thread;
+            }
+        }
+        return null;
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (thread.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(state, thread.getState());
+    }
+}
@@ -0,0 +1,96 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs more than 100k agent-like tasks on the virtual executor: each one waits on the
+ * simulation clock between steps, as a MobileAgent does. All of them must be alive at
+ * once on a handful of carrier threads in bounded memory, and shutdownNow (what pause
+ * and reset do) must stop every one of them, whether the clock is running or paused.
+ */
+class ExecutorModeStressTest {
+    private static final int AGENTS = 120_000;
+    /** Resident memory an idle virtual-thread agent may cost; a platform thread reserves far more. */
+    private static final long MAX_BYTES_PER_AGENT = 8 * 1024;
+
+    @Test
+    void runningAgentsStopOnShutdownNow() throws Exception {
+        runAndStop(false);
+    }
+
+    @Test
+    void pausedAgentsStopOnShutdownNow() throws Exception {
+        runAndStop(true);
+    }
+
+    private static void runAndStop(boolean pauseFirst) throws Exception {
+        SimulationClock clock = new SimulationClock(1);
+        CountDownLatch started = new CountDownLatch(AGENTS);
+        CountDownLatch stopped = new CountDownLatch(AGENTS);
+        AtomicInteger interrupted = new AtomicInteger();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long residentBefore = residentBytes();
+
+        ExecutorService executor = ExecutorMode.VIRTUAL.createExecutor();
+        for (int i = 0; i < AGENTS; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        clock.sleep(SimulationClock.TICK_NANOS);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                } finally {
+                    stopped.countDown();
+                }
+            });
+        }
+        assertTrue(started.await(60, TimeUnit.SECONDS), "every agent started");
+        if (pauseFirst) {
+            clock.pause();
+        }
+
+        // Virtual threads are not counted by the thread MXBean; only carriers and helpers are.
+        int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+        assertTrue(platformThreads <= Runtime.getRuntime().availableProcessors() + 16,
+                platformThreads + " platform threads for " + AGENTS + " agents");
+        long residentAfter = residentBytes();
+        if (residentBefore > 0 && residentAfter > 0) {
+            long perAgent = (residentAfter - residentBefore) / AGENTS;
+            assertTrue(perAgent < MAX_BYTES_PER_AGENT, perAgent + " resident bytes per agent");
+        }
+
+        executor.shutdownNow();
+        assertTrue(stopped.await(60, TimeUnit.SECONDS), "every agent stopped");
+        assertEquals(AGENTS, interrupted.get(), "every agent was interrupted");
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Reads the resident set size of this process.
+     * @return The size in bytes, or 0 where /proc is not available.
+     */
+    private static long residentBytes() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) return 0;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        }
+        return 0;
+    }
+}
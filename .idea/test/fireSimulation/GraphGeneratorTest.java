@@ -0,0 +1,82 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphGeneratorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void gridLoadsWithEveryLatticeEdge() throws Exception {
+        // A 7 x 7 lattice has 7 rows and 7 columns of 6 edges each.
+        CompactGraph graph = roundTrip("grid", 49, 84, "--fires=2");
+
+        assertEquals(2, graph.getFireStarts().length);
+        assertEquals(graph.indexOf(3, 3), graph.getStation());
+    }
+
+    @Test
+    void geometricLoadsWithTheEdgesItWrote() throws Exception {
+        CompactGraph graph = roundTrip("geometric", 60, -1, "--radius=15");
+
+        assertTrue(graph.edgeCount() > 0);
+    }
+
+    @Test
+    void smallWorldLoadsWithHalfADegreeOfLinksPerNode() throws Exception {
+        roundTrip("smallworld", 50, 50 * 2, "--degree=4", "--rewire=0.5");
+    }
+
+    @Test
+    void smallWorldRewiresEveryLinkOfADenseRing() throws Exception {
+        // Every rewired link has exactly one node outside its lattice neighborhood to go to.
+        roundTrip("smallworld", 6, 6 * 2, "--degree=4", "--rewire=1");
+    }
+
+    @Test
+    void degreeMustLeaveANodeToRewireTo() {
+        GraphGenerator generator = new GraphGenerator();
+
+        assertThrows(IllegalArgumentException.class, () -> generator.parseArguments(new String[] {
+                "--topology=smallworld", "--nodes=5", "--degree=4", "--out=" + dir.resolve("ring.txt")}));
+    }
+
+    /**
+     * Generates a network twice, checks that both files are identical and loads one of them.
+     * @param edges The expected edge count, or -1 to only check it against the generator's count.
+     */
+    private CompactGraph roundTrip(String topology, int nodes, int edges, String... options) throws Exception {
+        Path first = dir.resolve(topology + "-1.txt");
+        Path second = dir.resolve(topology + "-2.txt");
+        long written = generate(topology, nodes, first, options);
+        assertEquals(written, generate(topology, nodes, second, options));
+        assertEquals(-1, Files.mismatch(first, second), "the output depends only on the options");
+
+        CompactGraph graph = GraphLoader.load(first, null);
+        assertEquals(nodes, graph.size());
+        assertEquals(written, graph.edgeCount());
+        if (edges >= 0) assertEquals(edges, written);
+        assertTrue(graph.getStation() != CompactGraph.NO_NODE);
+        return graph;
+    }
+
+    private static long generate(String topology, int nodes, Path out, String... options) throws Exception {
+        String[] args = new String[options.length + 4];
+        args[0] = "--topology=" + topology;
+        args[1] = "--nodes=" + nodes;
+        args[2] = "--seed=5";
+        args[3] = "--out=" + out;
+        System.arraycopy(options, 0, args, 4, options.length);
+        GraphGenerator generator = new GraphGenerator();
+        generator.parseArguments(args);
+        return generator.generate();
+    }
+}
@@ -0,0 +1,83 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads walk agents on a crowded graph through the compare-and-set claim, racing for
+ * the same nodes. No node may ever hold two agents and no agent may be lost or duplicated.
+ */
+class OccupancyStressTest {
+    private static final int THREADS = 16;
+    private static final int AGENTS_PER_THREAD = 20;
+    private static final int MOVES_PER_AGENT = 20_000;
+
+    @Test
+    void concurrentMovesKeepOneAgentPerNode() throws Exception {
+        // 640 nodes for 320 agents: half of all neighbors are taken, so claims collide often.
+        CompactGraph graph = TestGraphs.grid(32, 20);
+        int[][] positions = new int[THREADS][AGENTS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            for (int a = 0; a < AGENTS_PER_THREAD; a++) {
+                int node = 2 * (t * AGENTS_PER_THREAD + a);
+                assertTrue(graph.placeAgent(node, agentId(t, a)));
+                positions[t][a] = node;
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] workers = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers[t] = pool.submit(() -> {
+                Random random = new Random(thread);
+                int[] mine = positions[thread];
+                start.await();
+                for (int m = 0; m < MOVES_PER_AGENT; m++) {
+                    for (int a = 0; a < AGENTS_PER_THREAD; a++) {
+                        int from = mine[a];
+                        int to = graph.neighbor(from, random.nextInt(graph.degree(from)));
+                        if (graph.tryMove(from, to, agentId(thread, a))) {
+                            mine[a] = to;
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(120, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int occupied = 0;
+        for (int node = 0; node < graph.size(); node++) {
+            if (graph.hasAgent(node)) occupied++;
+        }
+        assertEquals(THREADS * AGENTS_PER_THREAD, occupied, "occupied nodes");
+        for (int t = 0; t < THREADS; t++) {
+            for (int a = 0; a < AGENTS_PER_THREAD; a++) {
+                assertEquals(agentId(t, a), graph.getOccupant(positions[t][a]));
+            }
+        }
+        long attempts = graph.getMoveAttempts();
+        long completed = graph.getMovesCompleted();
+        assertEquals((long) THREADS * AGENTS_PER_THREAD * MOVES_PER_AGENT, attempts);
+        assertTrue(completed > 0 && completed < attempts, completed + " of " + attempts + " moves completed");
+    }
+
+    private static int agentId(int thread, int agent) {
+        return thread * AGENTS_PER_THREAD + agent;
+    }
+}
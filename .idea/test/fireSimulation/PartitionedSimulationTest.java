@@ -0,0 +1,92 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedSimulationTest {
+    private static final int SIZE = 24;
+
+    @TempDir
+    Path dir;
+
+    private Path config;
+
+    @BeforeEach
+    void writeGrid() throws IOException {
+        config = dir.resolve("grid.txt");
+        List<String> lines = new ArrayList<>();
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                lines.add("node " + x + " " + y);
+                if (x + 1 < SIZE) lines.add("edge " + x + " " + y + " " + (x + 1) + " " + y);
+                if (y + 1 < SIZE) lines.add("edge " + x + " " + y + " " + x + " " + (y + 1));
+            }
+        }
+        lines.add("station 8 12");
+        lines.add("fire 12 12");
+        Files.write(config, lines);
+    }
+
+    @Test
+    void agentsCloneAcrossWorkerProcesses() throws IOException {
+        // The station sits on the first node of the middle partition, next to the first one.
+        PartitionedSimulation.Totals totals = run(3, 7, 60);
+
+        assertTrue(totals.getAgentsSpawned() > 1, "spawned " + totals.getAgentsSpawned());
+        assertTrue(totals.getAgentsAlive() > 0);
+        assertTrue(totals.getAgentsAlive() <= totals.getAgentsSpawned());
+        assertTrue(totals.isConsistent(), "an agent was lost or duplicated at a boundary");
+    }
+
+    @Test
+    void fireSpreadsIntoEveryPartition() throws IOException {
+        // Each worker owns a third of the nodes; the fire starts in the middle one.
+        PartitionedSimulation.Totals totals = run(3, 7, 150);
+
+        assertTrue(totals.getBurned() > SIZE * SIZE * 2 / 3, "burned " + totals.getBurned());
+        assertTrue(totals.isConsistent(), "an agent was lost or duplicated at a boundary");
+    }
+
+    @Test
+    void sameSeedGivesTheSameTotals() throws IOException {
+        PartitionedSimulation.Totals first = run(2, 11, 80);
+        PartitionedSimulation.Totals second = run(2, 11, 80);
+
+        assertEquals(first.getBurned(), second.getBurned());
+        assertEquals(first.getAgentsAlive(), second.getAgentsAlive());
+        assertEquals(first.getAgentsSpawned(), second.getAgentsSpawned());
+    }
+
+    @Test
+    void workersApplyCloneAdmission() throws IOException {
+        PartitionedSimulation.Totals unlimited = run(3, 7, 60);
+        System.setProperty("fireSimulation.agents.max", "2");
+        PartitionedSimulation.Totals limited;
+        try {
+            limited = run(3, 7, 60);
+        } finally {
+            System.clearProperty("fireSimulation.agents.max");
+        }
+
+        assertTrue(limited.getAgentsSpawned() < unlimited.getAgentsSpawned(),
+                limited.getAgentsSpawned() + " of " + unlimited.getAgentsSpawned());
+        assertTrue(limited.isConsistent(), "an agent was lost or duplicated at a boundary");
+    }
+
+    private PartitionedSimulation.Totals run(int workers, long seed, int ticks) throws IOException {
+        try (PartitionedSimulation simulation = new PartitionedSimulation(config.toString(), workers, seed)) {
+            simulation.run(ticks);
+            return simulation.finish();
+        }
+    }
+}
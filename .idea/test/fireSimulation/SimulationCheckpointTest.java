@@ -0,0 +1,98 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimulationCheckpointTest {
+    private static final long SEED = 3;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumedRunContinuesExactlyLikeTheOriginal() throws IOException {
+        Path file = dir.resolve("run.fsc");
+        CompactSimulation original = new CompactSimulation(TestGraphs.grid(25, 25, 12, 12), SEED);
+        advance(original, 70);
+        SimulationCheckpoint.save(original, file);
+        advance(original, 80);
+
+        CompactSimulation resumed = SimulationCheckpoint.resume(TestGraphs.grid(25, 25, 12, 12), SEED, file);
+        assertEquals(70, resumed.getTick());
+        advance(resumed, 80);
+
+        assertSameState(original, resumed);
+    }
+
+    @Test
+    void resumedCoverageRunKeepsItsPolicyAndVisits() throws IOException {
+        Path file = dir.resolve("run.fsc");
+        CompactGraph graph = TestGraphs.grid(25, 25, 12, 12);
+        graph.setWalkPolicy(CompactGraph.WalkPolicy.COVERAGE);
+        CompactSimulation original = new CompactSimulation(graph, SEED);
+        advance(original, 70);
+        SimulationCheckpoint.save(original, file);
+        advance(original, 80);
+
+        CompactSimulation resumed = SimulationCheckpoint.resume(TestGraphs.grid(25, 25, 12, 12), SEED, file);
+        assertEquals(CompactGraph.WalkPolicy.COVERAGE, resumed.getGraph().getWalkPolicy());
+        advance(resumed, 80);
+
+        assertSameState(original, resumed);
+        for (int node = 0; node < graph.size(); node++) {
+            assertEquals(graph.getLastVisit(node), resumed.getGraph().getLastVisit(node), "last visit of node " + node);
+        }
+    }
+
+    @Test
+    void rejectsACheckpointOfAnotherGraph() throws IOException {
+        Path file = dir.resolve("run.fsc");
+        SimulationCheckpoint.save(new CompactSimulation(TestGraphs.grid(25, 25, 12, 12), SEED), file);
+
+        assertThrows(IOException.class,
+                () -> SimulationCheckpoint.resume(TestGraphs.grid(20, 20, 10, 10), SEED, file));
+    }
+
+    @Test
+    void rejectsATruncatedCheckpoint() throws IOException {
+        Path file = dir.resolve("run.fsc");
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(25, 25, 12, 12), SEED);
+        advance(simulation, 20);
+        SimulationCheckpoint.save(simulation, file);
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+
+        assertThrows(IOException.class,
+                () -> SimulationCheckpoint.resume(TestGraphs.grid(25, 25, 12, 12), SEED, file));
+    }
+
+    private static void advance(CompactSimulation simulation, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            simulation.tick();
+        }
+    }
+
+    private static void assertSameState(CompactSimulation expected, CompactSimulation actual) {
+        assertEquals(expected.getTick(), actual.getTick());
+        assertEquals(expected.getAgentsSpawned(), actual.getAgentsSpawned());
+        assertEquals(expected.getAgentCount(), actual.getAgentCount());
+        for (int i = 0; i < expected.getAgentCount(); i++) {
+            assertEquals(expected.getAgentId(i), actual.getAgentId(i), "agent " + i);
+            assertEquals(expected.getAgentNode(i), actual.getAgentNode(i), "node of agent " + i);
+        }
+        CompactGraph graph = expected.getGraph();
+        for (int node = 0; node < graph.size(); node++) {
+            assertEquals(graph.getStateCode(node), actual.getGraph().getStateCode(node), "state of node " + node);
+            assertEquals(graph.getOccupant(node), actual.getGraph().getOccupant(node), "occupant of node " + node);
+        }
+    }
+}
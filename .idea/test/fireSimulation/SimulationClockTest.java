@@ -0,0 +1,105 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationClockTest {
+    @Test
+    void pausedClockStandsStill() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(1);
+        clock.pause();
+        long frozen = clock.now();
+        Thread.sleep(20);
+
+        assertTrue(clock.isPaused());
+        assertEquals(frozen, clock.now());
+        clock.resume();
+        Thread.sleep(20);
+        assertTrue(clock.now() > frozen);
+    }
+
+    @Test
+    void speedScalesVirtualTime() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(100);
+        long start = clock.now();
+        long realStart = System.nanoTime();
+        clock.sleep(SimulationClock.TICK_NANOS);
+        long real = System.nanoTime() - realStart;
+
+        assertTrue(clock.now() - start >= SimulationClock.TICK_NANOS);
+        assertTrue(real >= SimulationClock.TICK_NANOS / 100, "slept " + real + " ns");
+        assertTrue(real < SimulationClock.TICK_NANOS / 2, "slept " + real + " ns");
+    }
+
+    @Test
+    void speedChangeReachesASleeperWithoutAWakeup() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(0.01);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread sleeper = Thread.ofVirtual().start(() -> {
+            try {
+                clock.sleep(SimulationClock.TICK_NANOS);
+                done.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Thread.sleep(50);
+        clock.setSpeed(SimulationClock.MAX_SPEED);
+
+        assertTrue(done.await(2 * SimulationClock.MAX_PARK_NANOS, TimeUnit.NANOSECONDS));
+        sleeper.join();
+    }
+
+    @Test
+    void sleepWaitsForResume() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(SimulationClock.MAX_SPEED);
+        clock.pause();
+        AtomicBoolean woke = new AtomicBoolean();
+        Thread sleeper = Thread.ofVirtual().start(() -> {
+            try {
+                clock.sleep(SimulationClock.TICK_NANOS);
+                woke.set(true);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(woke.get());
+
+        clock.resume();
+        sleeper.join(TimeUnit.SECONDS.toMillis(5));
+        assertTrue(woke.get());
+    }
+
+    @Test
+    void interruptStopsAPausedSleeper() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(1);
+        clock.pause();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread sleeper = Thread.ofVirtual().start(() -> {
+            try {
+                clock.sleep(SimulationClock.TICK_NANOS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        Thread.sleep(50);
+        sleeper.interrupt();
+        sleeper.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void rejectsNonPositiveSpeeds() {
+        SimulationClock clock = new SimulationClock(1);
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(0));
+        assertThrows(IllegalArgumentException.class, () -> clock.setSpeed(Double.NaN));
+    }
+}
@@ -0,0 +1,58 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationMetricsTest {
+    @Test
+    void queueDepthCountsTasksNotYetStarted() throws InterruptedException {
+        long before = value("firesim_executor_queue_depth");
+        ExecutorService executor = SimulationMetrics.instrument(Executors.newSingleThreadExecutor());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> { });
+        }
+        assertEquals(before + 3, value("firesim_executor_queue_depth"));
+
+        executor.shutdownNow();
+        assertEquals(before, value("firesim_executor_queue_depth"));
+    }
+
+    @Test
+    void compactTicksAreCounted() {
+        long steps = value("firesim_agent_steps_total");
+        long clones = value("firesim_agent_clones_total");
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(20, 20, 1, 1), 4);
+        for (int i = 0; i < 60; i++) {
+            simulation.tick();
+        }
+
+        assertTrue(value("firesim_agent_steps_total") - steps >= 60);
+        assertTrue(value("firesim_agent_clones_total") - clones > 0);
+    }
+
+    private static long value(String metric) {
+        for (String line : SimulationMetrics.scrape().split("\n")) {
+            if (line.startsWith(metric + " ")) {
+                return Long.parseLong(line.substring(metric.length() + 1));
+            }
+        }
+        throw new AssertionError("No metric " + metric);
+    }
+}
@@ -0,0 +1,161 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpatialGridTest {
+    private static final double CELL_SIZE = 4;
+
+    private final List<double[]> points = new ArrayList<>();
+    private final SpatialGrid grid = new SpatialGrid(CELL_SIZE);
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        Random random = new Random(3);
+        addRandomPoints(random, 500, -60, 60);
+        addCellCorners();
+
+        for (int probe = 0; probe < 2000; probe++) {
+            double x = -70 + 140 * random.nextDouble();
+            double y = -70 + 140 * random.nextDouble();
+            checkNearest(x, y, random.nextDouble() * 10);
+        }
+        // Probes exactly on cell edges and on indexed points.
+        for (double x = -8; x <= 8; x += CELL_SIZE) {
+            for (double y = -8; y <= 8; y += CELL_SIZE) {
+                checkNearest(x, y, 0);
+                checkNearest(x, y, CELL_SIZE);
+            }
+        }
+    }
+
+    @Test
+    void queryMatchesABruteForceScan() {
+        Random random = new Random(5);
+        addRandomPoints(random, 500, -60, 60);
+        addCellCorners();
+
+        for (int probe = 0; probe < 500; probe++) {
+            double x = -70 + 140 * random.nextDouble();
+            double y = -70 + 140 * random.nextDouble();
+            checkQuery(x, y, x + random.nextDouble() * 20, y + random.nextDouble() * 20);
+        }
+        // Rectangles whose edges run along cell edges and through indexed points.
+        checkQuery(-8, -8, 8, 8);
+        checkQuery(-CELL_SIZE, 0, 0, CELL_SIZE);
+        checkQuery(0, 0, 0, 0);
+    }
+
+    @Test
+    void zoomedOutQueryWalksTheOccupiedCells() {
+        Random random = new Random(7);
+        addRandomPoints(random, 300, -1_000, 1_000);
+
+        // Far more cells than are occupied, so the query walks the table instead of the rectangle.
+        checkQuery(-1e6, -1e6, 1e6, 1e6);
+        checkQuery(-1e6, -1e6, 0, 0);
+        checkQuery(-500, -1e6, 500, 1e6);
+        assertEquals(points.size(), grid.size());
+    }
+
+    @Test
+    void nodesAddedLaterAreFound() {
+        Random random = new Random(9);
+        addRandomPoints(random, 50, 0, 20);
+        checkQuery(-100, -100, 100, 100);
+
+        // New points beyond the old bounds, in new cells, and enough of them to grow the cell table.
+        addRandomPoints(random, 400, -90, 90);
+        add(-95, 95);
+        for (int probe = 0; probe < 500; probe++) {
+            checkNearest(-100 + 200 * random.nextDouble(), -100 + 200 * random.nextDouble(), 8);
+        }
+        checkQuery(-100, -100, 100, 100);
+        checkQuery(-96, 94, -94, 96);
+
+        grid.clear();
+        points.clear();
+        assertEquals(-1, grid.nearest(-95, 95, 10));
+        add(1, 1);
+        checkNearest(0, 0, 2);
+    }
+
+    @Test
+    void cellSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialGrid(0));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialGrid(Double.NaN));
+    }
+
+    private void addRandomPoints(Random random, int count, double from, double to) {
+        for (int i = 0; i < count; i++) {
+            add(from + (to - from) * random.nextDouble(), from + (to - from) * random.nextDouble());
+        }
+    }
+
+    /**
+     * Adds points on the corners of the cells around the origin, which lie on four cells' edges.
+     */
+    private void addCellCorners() {
+        for (double x = -8; x <= 8; x += CELL_SIZE) {
+            for (double y = -8; y <= 8; y += CELL_SIZE) {
+                add(x, y);
+            }
+        }
+    }
+
+    private void add(double x, double y) {
+        grid.add(points.size(), x, y);
+        points.add(new double[] {x, y});
+    }
+
+    private void checkNearest(double x, double y, double maxDistance) {
+        double best = maxDistance * maxDistance;
+        boolean found = false;
+        for (double[] point : points) {
+            double distance = distanceSquared(point, x, y);
+            if (distance <= best) {
+                best = distance;
+                found = true;
+            }
+        }
+
+        int nearest = grid.nearest(x, y, maxDistance);
+        String probe = "(" + x + ", " + y + ") within " + maxDistance;
+        if (!found) {
+            assertEquals(-1, nearest, probe);
+        } else {
+            // Ties may resolve to any of the closest points.
+            assertEquals(best, distanceSquared(points.get(nearest), x, y), probe);
+        }
+    }
+
+    private void checkQuery(double minX, double minY, double maxX, double maxY) {
+        Set<Integer> expected = new TreeSet<>();
+        for (int id = 0; id < points.size(); id++) {
+            double[] point = points.get(id);
+            if (point[0] >= minX && point[0] <= maxX && point[1] >= minY && point[1] <= maxY) {
+                expected.add(id);
+            }
+        }
+
+        List<Integer> reported = new ArrayList<>();
+        grid.query(minX, minY, maxX, maxY, reported::add);
+        String rectangle = "[" + minX + ", " + minY + "] - [" + maxX + ", " + maxY + "]";
+        assertEquals(expected.size(), reported.size(), "each node is reported once in " + rectangle);
+        assertEquals(expected, new TreeSet<>(reported), rectangle);
+    }
+
+    private static double distanceSquared(double[] point, double x, double y) {
+        double dx = point[0] - x;
+        double dy = point[1] - y;
+        return dx * dx + dy * dy;
+    }
+}
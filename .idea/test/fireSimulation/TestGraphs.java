@@ -0,0 +1,46 @@
+package fireSimulation;
+
+import java.io.IOException;
+
+/**
+ * Small sensor networks for the tests.
+ */
+final class TestGraphs {
+    private TestGraphs() {
+    }
+
+    /**
+     * Builds a width x height grid where every node is linked to its right and lower
+     * neighbor. The base station sits at (0, 0).
+     * @param width The number of columns.
+     * @param height The number of rows.
+     * @param fires Fire start locations as x, y pairs.
+     * @return The graph.
+     */
+    static CompactGraph grid(int width, int height, int... fires) {
+        CompactGraph.LongBuffer nodes = new CompactGraph.LongBuffer();
+        CompactGraph.LongBuffer edges = new CompactGraph.LongBuffer();
+        CompactGraph.LongBuffer fireKeys = new CompactGraph.LongBuffer();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                nodes.add(CompactGraph.pack(x, y));
+                if (x + 1 < width) {
+                    edges.add(CompactGraph.pack(x, y));
+                    edges.add(CompactGraph.pack(x + 1, y));
+                }
+                if (y + 1 < height) {
+                    edges.add(CompactGraph.pack(x, y));
+                    edges.add(CompactGraph.pack(x, y + 1));
+                }
+            }
+        }
+        for (int i = 0; i + 1 < fires.length; i += 2) {
+            fireKeys.add(CompactGraph.pack(fires[i], fires[i + 1]));
+        }
+        try {
+            return CompactGraph.build(nodes, edges, CompactGraph.pack(0, 0), fireKeys);
+        } catch (IOException e) {
+            throw new IllegalStateException("Grid references a node it did not create", e);
+        }
+    }
+}
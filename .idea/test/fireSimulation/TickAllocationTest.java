@@ -0,0 +1,51 @@
+package fireSimulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TickAllocationTest {
+    private static final int TICKS = 200;
+
+    @Test
+    void steadyStateTicksAllocateNothing() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported(),
+                "thread allocation counting is not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long thread = Thread.currentThread().threadId();
+        CompactSimulation simulation = new CompactSimulation(TestGraphs.grid(60, 60, 30, 30), 3);
+
+        // Earlier runs of the same seed grow every buffer to its final size and let the JIT
+        // compile the tick. A recompilation or a counter cell created under contention from
+        // another test can still allocate during one run, so the quietest of a few runs counts.
+        for (int run = 0; run < 10; run++) {
+            simulation.reset();
+            runTicks(simulation);
+        }
+        long allocated = Long.MAX_VALUE;
+        int spawned = 0;
+        for (int attempt = 0; attempt < 5 && allocated > 0; attempt++) {
+            simulation.reset();
+            long before = threads.getThreadAllocatedBytes(thread);
+            spawned = runTicks(simulation);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before);
+        }
+
+        assertTrue(spawned > 1, "no clones were created");
+        assertEquals(0, allocated, "bytes allocated by " + TICKS + " ticks");
+    }
+
+    private static int runTicks(CompactSimulation simulation) {
+        for (int i = 0; i < TICKS; i++) {
+            simulation.tick();
+        }
+        return simulation.getAgentsSpawned();
+    }
+}
@@ -0,0 +1,64 @@
+package fireSimulation;
+
+import java.io.IOException;
+
+/**
+ * Synthetic sensor networks for the benchmarks, parameterized by size and degree.
+ */
+final class BenchmarkGraphs {
+    private BenchmarkGraphs() {
+    }
+
+    /**
+     * Builds a ring lattice laid out column by column on a square: node i sits at
+     * (i / side, i % side) and is linked to the next degree / 2 nodes in index order, so
+     * every node has {@code degree} neighbors and node indices match the lattice order.
+     * The base station is node 0.
+     * @param nodes The node count.
+     * @param degree The number of neighbors of every node; must be even.
+     * @param fires The nodes burning at the start.
+     * @return The graph.
+     */
+    static CompactGraph ringLattice(int nodes, int degree, int... fires) {
+        if (degree < 2 || degree % 2 != 0 || degree >= nodes) {
+            throw new IllegalArgumentException("Degree must be even, at least 2 and below the node count.");
+        }
+        int side = (int) Math.ceil(Math.sqrt(nodes));
+        CompactGraph.LongBuffer keys = new CompactGraph.LongBuffer();
+        CompactGraph.LongBuffer edges = new CompactGraph.LongBuffer();
+        CompactGraph.LongBuffer fireKeys = new CompactGraph.LongBuffer();
+        for (int i = 0; i < nodes; i++) {
+            keys.add(key(i, side));
+            for (int k = 1; k <= degree / 2; k++) {
+                edges.add(key(i, side));
+                edges.add(key((i + k) % nodes, side));
+            }
+        }
+        for (int fire : fires) {
+            fireKeys.add(key(fire, side));
+        }
+        try {
+            return CompactGraph.build(keys, edges, key(0, side), fireKeys);
+        } catch (IOException e) {
+            throw new IllegalStateException("Lattice references a node it did not create", e);
+        }
+    }
+
+    /**
+     * Spreads fire starts evenly over the index range.
+     * @param nodes The node count.
+     * @param fires The number of fires.
+     * @return The fire start indices.
+     */
+    static int[] evenFires(int nodes, int fires) {
+        int[] starts = new int[fires];
+        for (int i = 0; i < fires; i++) {
+            starts[i] = (int) ((2L * i + 1) * nodes / (2L * fires));
+        }
+        return starts;
+    }
+
+    private static long key(int node, int side) {
+        return CompactGraph.pack(node / side, node % side);
+    }
+}
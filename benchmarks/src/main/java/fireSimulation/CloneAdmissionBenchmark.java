@@ -0,0 +1,53 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admitting and releasing a clone on one policy shared by every benchmark thread: the
+ * shared, contended step of every clone. Run with {@code -t 8}, {@code -t 32} or
+ * {@code -t 128} to compare contention levels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloneAdmissionBenchmark {
+    /** unlimited: no limit; capped: a global cap that is never reached; rated: a token bucket that always has tokens. */
+    @Param({"unlimited", "capped", "rated"})
+    String limits;
+
+    private CloneAdmission policy;
+
+    @Setup
+    public void setUp() {
+        switch (limits) {
+            case "unlimited": policy = new CloneAdmission(0, 0, 0, 0, 1); break;
+            case "capped": policy = new CloneAdmission(Integer.MAX_VALUE, 0, 0, 0, 1); break;
+            case "rated": policy = new CloneAdmission(0, 0, 0, 1e12, Integer.MAX_VALUE); break;
+            default: throw new IllegalArgumentException("Unknown limits " + limits);
+        }
+    }
+
+    @Benchmark
+    public CloneAdmission.Verdict admitAndRelease() {
+        CloneAdmission.Verdict verdict = policy.tryAdmit(CloneAdmission.NO_REGION);
+        if (verdict == CloneAdmission.Verdict.ADMITTED) {
+            policy.release(CloneAdmission.NO_REGION);
+        }
+        return verdict;
+    }
+}
@@ -0,0 +1,80 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+/**
+ * One agent on a yellow node cloning onto every free neighbor, the compact counterpart of
+ * {@code MobileAgent.createCopiesOnNeighbors}. The clones are evicted again after each
+ * burst so every invocation clones onto the same free neighbors. With admission on, every
+ * clone is admitted by a {@link CloneAdmission} whose limits are never reached, which
+ * measures the bookkeeping cost of the policy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CloneBurstBenchmark {
+    @Param({"10000", "1000000"})
+    int nodes;
+
+    @Param({"4", "8", "16"})
+    int degree;
+
+    @Param({"false", "true"})
+    boolean admission;
+
+    private CompactGraph graph;
+    private final Random random = new Random(1);
+    private int yellow;
+    private int nextAgentId = 1;
+    private final IntSupplier agentIds = () -> nextAgentId++;
+    private CloneAdmission policy;
+    private IntPredicate admitClone;
+
+    @Setup
+    public void setUp() {
+        graph = BenchmarkGraphs.ringLattice(nodes, degree);
+        yellow = nodes / 2;
+        byte[] states = new byte[nodes];
+        states[yellow] = CompactGraph.NEAR_FIRE;
+        int[] occupants = new int[nodes];
+        Arrays.fill(occupants, CompactGraph.NO_AGENT);
+        occupants[yellow] = 0;
+        graph.restore(states, occupants, 0);
+        if (admission) {
+            policy = new CloneAdmission(Integer.MAX_VALUE, 0, 0, 0, 1);
+            admitClone = node -> policy.tryAdmit(CloneAdmission.NO_REGION) == CloneAdmission.Verdict.ADMITTED;
+        }
+    }
+
+    @Benchmark
+    public int burst() {
+        graph.step(yellow, random, agentIds, admitClone, null);
+        int cloned = 0;
+        for (int k = 0; k < degree; k++) {
+            if (graph.evict(graph.neighbor(yellow, k)) != CompactGraph.NO_AGENT) {
+                cloned++;
+                if (policy != null) policy.release(CloneAdmission.NO_REGION);
+            }
+        }
+        return cloned;
+    }
+}
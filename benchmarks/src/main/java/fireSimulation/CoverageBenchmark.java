@@ -0,0 +1,169 @@
+package fireSimulation;
+
+import java.util.Locale;
+
+/**
+ * Command-line comparison of agent walk policies on a compact simulation.
+ * Usage: CoverageBenchmark [--ticks=N] [--seeds=N] [--target=F] network.txt
+ * Runs the scenario with every seed from 1 to --seeds under each CompactGraph.WalkPolicy and
+ * reports how long the agents take to cover the fire perimeter: the first tick at which at
+ * least --target of the yellow nodes hold an agent, and how many agents and agent steps it
+ * took to get there. Policies are compared over the same runs: the mean tick over every seed,
+ * counting a miss as --ticks, and the means over the seeds where every policy reached the
+ * target, with how often each policy got there first.
+ */
+public class CoverageBenchmark {
+    private int ticks = 1000;
+    private int seeds = 20;
+    private double target = 1.0;
+    private String inputFile;
+
+    /**
+     * Runs the comparison described by the command-line arguments.
+     * @param args The options and the network configuration file.
+     */
+    public static void main(String[] args) {
+        CommandLine.run(args, "CoverageBenchmark [--ticks=N] [--seeds=N] [--target=F] network.txt",
+                "Benchmark failed", arguments -> {
+            CoverageBenchmark benchmark = new CoverageBenchmark();
+            benchmark.parseArguments(arguments);
+            benchmark.run();
+        });
+    }
+
+    /**
+     * Parses the options.
+     * @param args The command-line arguments.
+     */
+    private void parseArguments(String[] args) {
+        CommandLine line = CommandLine.parse(args, "ticks", "seeds", "target");
+        ticks = line.getInt("ticks", ticks);
+        seeds = line.getInt("seeds", seeds);
+        target = line.getDouble("target", target);
+        inputFile = line.getFile("network file");
+        if (ticks < 1 || seeds < 1 || !(target > 0 && target <= 1)) {
+            throw new IllegalArgumentException("Ticks and seeds must be positive and the target in (0, 1].");
+        }
+    }
+
+    /**
+     * Runs every seed under every policy and prints a comparison over the same runs.
+     * @throws Exception If the network cannot be loaded.
+     */
+    private void run() throws Exception {
+        CompactGraph graph = CompactGraph.load(inputFile);
+        CompactGraph.WalkPolicy[] policies = CompactGraph.WalkPolicy.values();
+        System.out.println(String.format(Locale.ROOT, "%d nodes, %d seeds, target %.0f%% of the perimeter within %d ticks",
+                graph.size(), seeds, target * 100, ticks));
+
+        Outcome[][] outcomes = new Outcome[policies.length][seeds];
+        for (int p = 0; p < policies.length; p++) {
+            graph.setWalkPolicy(policies[p]);
+            for (int seed = 1; seed <= seeds; seed++) {
+                outcomes[p][seed - 1] = runSeed(graph, seed);
+            }
+        }
+        graph.setWalkPolicy(CompactGraph.WalkPolicy.RANDOM);
+
+        // Every policy is averaged over the same seeds: those where all of them reached the target.
+        boolean[] paired = new boolean[seeds];
+        int pairedCount = 0;
+        for (int seed = 0; seed < seeds; seed++) {
+            paired[seed] = true;
+            for (Outcome[] policyOutcomes : outcomes) {
+                paired[seed] &= policyOutcomes[seed].reached();
+            }
+            if (paired[seed]) pairedCount++;
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %8s %12s | %6s %10s %12s %12s %14s",
+                "policy", "reached", "ticks(all)", "first", "ticks", "agents", "spawned", "steps"));
+        for (int p = 0; p < policies.length; p++) {
+            int reached = 0;
+            long allTicks = 0;
+            int first = 0;
+            long totalTicks = 0;
+            long totalAgents = 0;
+            long totalSpawned = 0;
+            long totalSteps = 0;
+            for (int seed = 0; seed < seeds; seed++) {
+                Outcome outcome = outcomes[p][seed];
+                if (outcome.reached()) reached++;
+                allTicks += outcome.reached() ? outcome.tick : ticks;
+                if (!paired[seed]) continue;
+
+                totalTicks += outcome.tick;
+                totalAgents += outcome.agents;
+                totalSpawned += outcome.spawned;
+                totalSteps += outcome.steps;
+                boolean fastest = true;
+                for (int other = 0; other < policies.length; other++) {
+                    if (other != p && outcomes[other][seed].tick <= outcome.tick) fastest = false;
+                }
+                if (fastest) first++;
+            }
+            double runs = Math.max(1, pairedCount);
+            System.out.println(String.format(Locale.ROOT, "%-10s %4d/%-3d %12.1f | %6d %10.1f %,12.0f %,12.0f %,14.0f",
+                    policies[p].name().toLowerCase(Locale.ROOT), reached, seeds, (double) allTicks / seeds,
+                    first, totalTicks / runs, totalAgents / runs, totalSpawned / runs, totalSteps / runs));
+        }
+        System.out.println("ticks(all): mean over every seed, counting a miss as " + ticks + " ticks.");
+        System.out.println("Right of |: the " + pairedCount + " seeds where every policy reached the target; "
+                + "first counts the seeds a policy reached strictly first, the rest are means.");
+    }
+
+    /**
+     * Runs one seed until the target coverage or the tick limit.
+     */
+    private Outcome runSeed(CompactGraph graph, long seed) {
+        CompactSimulation simulation = new CompactSimulation(graph, seed);
+        long steps = 0;
+        for (int t = 0; t < ticks; t++) {
+            steps += simulation.getAgentCount();
+            simulation.tick();
+            if (perimeterCoverage(simulation) >= target) {
+                return new Outcome(simulation.getTick(), simulation.getAgentCount(), simulation.getAgentsSpawned(), steps);
+            }
+        }
+        return new Outcome(-1, simulation.getAgentCount(), simulation.getAgentsSpawned(), steps);
+    }
+
+    /**
+     * Computes the fraction of yellow nodes that hold an agent; 0 while there are none.
+     */
+    private static double perimeterCoverage(CompactSimulation simulation) {
+        CompactGraph graph = simulation.getGraph();
+        long perimeter = graph.getStateCount(CompactGraph.NEAR_FIRE);
+        if (perimeter == 0) return 0;
+
+        long covered = 0;
+        for (int i = 0; i < simulation.getAgentCount(); i++) {
+            if (graph.getStateCode(simulation.getAgentNode(i)) == CompactGraph.NEAR_FIRE) {
+                covered++;
+            }
+        }
+        return (double) covered / perimeter;
+    }
+
+    /**
+     * The result of one run: the tick the target was reached, or -1, and the agents,
+     * spawned agents and agent steps up to then.
+     */
+    private static final class Outcome {
+        private final int tick;
+        private final int agents;
+        private final int spawned;
+        private final long steps;
+
+        Outcome(int tick, int agents, int spawned, long steps) {
+            this.tick = tick;
+            this.agents = agents;
+            this.spawned = spawned;
+            this.steps = steps;
+        }
+
+        boolean reached() {
+            return tick >= 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fire spread evaluation, the compact counterpart of every {@code SensorNode} checking its
+ * neighbors each period: {@code ticks} ticks of {@link CompactGraph#spreadFire} from the
+ * initial fires. The graph is reset before each measured run, outside the measurement.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Thread)
+public class FireSpreadBenchmark {
+    @Param({"10000", "1000000"})
+    int nodes;
+
+    @Param({"4", "8", "16"})
+    int degree;
+
+    @Param({"1", "16"})
+    int fires;
+
+    @Param({"200"})
+    int ticks;
+
+    private CompactGraph graph;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        graph = BenchmarkGraphs.ringLattice(nodes, degree, BenchmarkGraphs.evenFires(nodes, fires));
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        graph.reset();
+        random = new Random(1);
+    }
+
+    @Benchmark
+    public long spread() {
+        long ignited = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            ignited += graph.spreadFire(tick, random, null);
+        }
+        return ignited;
+    }
+}
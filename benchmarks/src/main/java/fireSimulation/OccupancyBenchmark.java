@@ -0,0 +1,134 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agents racing for nodes on one crowded graph, one agent per benchmark thread. Compares the
+ * compare-and-set claim of {@link CompactGraph#tryMove} with the lock pair the object model
+ * used before: both nodes locked with tryLock in identity-hash order, the move abandoned if
+ * either lock is taken. Reports moves per second and how many attempts succeeded
+ * ({@code succeeded} / ({@code succeeded} + {@code failed})). Run with {@code -t 8},
+ * {@code -t 32} or {@code -t 128}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyBenchmark {
+    /** Nodes per benchmark thread; 2 means half of every agent's neighbors are taken. */
+    private static final int NODES_PER_AGENT = 2;
+
+    /**
+     * The shared graph and the locks of the lock-pair protocol.
+     */
+    @State(Scope.Benchmark)
+    public static class Network {
+        @Param({"cas", "locks"})
+        String protocol;
+
+        @Param({"4"})
+        int degree;
+
+        CompactGraph graph;
+        ReentrantLock[] locks;
+        final AtomicInteger nextAgent = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void setUp(BenchmarkParams params) {
+            graph = BenchmarkGraphs.ringLattice(Math.max(degree + 1, params.getThreads() * NODES_PER_AGENT), degree);
+            locks = new ReentrantLock[graph.size()];
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            // Threads start moving as soon as they are ready, so every agent is placed up front.
+            for (int id = 0; id < params.getThreads(); id++) {
+                graph.placeAgent(id * NODES_PER_AGENT, id);
+            }
+            nextAgent.set(0);
+        }
+    }
+
+    /**
+     * One agent, walked by one benchmark thread, and its move counts.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Agent {
+        public long succeeded;
+        public long failed;
+        int id;
+        int node;
+        Random random;
+
+        @Setup(Level.Iteration)
+        public void setUp(Network network) {
+            id = network.nextAgent.getAndIncrement();
+            node = id * NODES_PER_AGENT;
+            random = new Random(id);
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean move(Network network, Agent agent) {
+        CompactGraph graph = network.graph;
+        int from = agent.node;
+        int to = graph.neighbor(from, agent.random.nextInt(graph.degree(from)));
+        boolean moved = "cas".equals(network.protocol)
+                ? graph.tryMove(from, to, agent.id)
+                : moveWithLocks(network, from, to, agent.id);
+        if (moved) {
+            agent.node = to;
+            agent.succeeded++;
+        } else {
+            agent.failed++;
+        }
+        return moved;
+    }
+
+    private static boolean moveWithLocks(Network network, int from, int to, int id) {
+        ReentrantLock first = network.locks[from];
+        ReentrantLock second = network.locks[to];
+        if (System.identityHashCode(first) > System.identityHashCode(second)) {
+            ReentrantLock swap = first;
+            first = second;
+            second = swap;
+        }
+        if (!first.tryLock()) return false;
+        try {
+            if (!second.tryLock()) return false;
+            try {
+                CompactGraph graph = network.graph;
+                if (graph.getOccupant(to) != CompactGraph.NO_AGENT || graph.getOccupant(from) != id) {
+                    return false;
+                }
+                graph.evict(from);
+                return graph.placeAgent(to, id);
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package fireSimulation;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command-line benchmark of cohort stepping on a compact simulation.
+ * Usage: ScalingBenchmark [--ticks=N] [--seed=S] [--threads=1,2,4,...] [--rounds=R] network.txt
+ * Runs the same scenario sequentially and then on a fork-join pool of each thread count,
+ * and prints agent steps per second and the speedup over the sequential run. Each
+ * measurement is the best of several rounds, after one unmeasured round to warm up the JIT.
+ * Graphs from GraphGenerator with a million nodes or more give populations large enough
+ * for the cohorts to keep every core busy.
+ */
+public class ScalingBenchmark {
+    private int ticks = 200;
+    private long seed = 1;
+    private int rounds = 3;
+    private int[] threads;
+    private String inputFile;
+
+    /**
+     * Runs the benchmark described by the command-line arguments.
+     * @param args The options and the network configuration file.
+     */
+    public static void main(String[] args) {
+        CommandLine.run(args, "ScalingBenchmark [--ticks=N] [--seed=S] [--threads=1,2,4,...] [--rounds=R] network.txt",
+                "Benchmark failed", arguments -> {
+            ScalingBenchmark benchmark = new ScalingBenchmark();
+            benchmark.parseArguments(arguments);
+            benchmark.run();
+        });
+    }
+
+    /**
+     * Parses the options; by default the thread counts double up to the number of cores.
+     * @param args The command-line arguments.
+     */
+    private void parseArguments(String[] args) {
+        CommandLine line = CommandLine.parse(args, "ticks", "seed", "rounds", "threads");
+        ticks = line.getInt("ticks", ticks);
+        seed = line.getLong("seed", seed);
+        rounds = line.getInt("rounds", rounds);
+        threads = line.getInts("threads", null);
+        inputFile = line.getFile("network file");
+        if (ticks < 1 || rounds < 1) {
+            throw new IllegalArgumentException("Ticks and rounds must be positive.");
+        }
+        if (threads != null) {
+            for (int count : threads) {
+                if (count < 1) {
+                    throw new IllegalArgumentException("Thread counts must be positive.");
+                }
+            }
+        } else {
+            int cores = Runtime.getRuntime().availableProcessors();
+            threads = new int[32 - Integer.numberOfLeadingZeros(cores)];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = 1 << i;
+            }
+        }
+    }
+
+    /**
+     * Measures the sequential run, then every thread count, and prints one line each.
+     * @throws Exception If the network cannot be loaded.
+     */
+    private void run() throws Exception {
+        CompactGraph graph = CompactGraph.load(inputFile);
+        CompactSimulation simulation = new CompactSimulation(graph, seed);
+        System.out.println(graph.size() + " nodes, " + ticks + " ticks, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+
+        measure(simulation, null);
+        Result sequential = measure(simulation, null);
+        print("sequential", sequential, sequential);
+        for (int count : threads) {
+            ForkJoinPool pool = new ForkJoinPool(count);
+            try {
+                measure(simulation, pool);
+                print(count + (count == 1 ? " thread" : " threads"), measure(simulation, pool), sequential);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Runs the scenario from the start the configured number of rounds and keeps the fastest.
+     */
+    private Result measure(CompactSimulation simulation, ForkJoinPool pool) {
+        Result best = null;
+        for (int round = 0; round < rounds; round++) {
+            simulation.setParallelism(null);
+            simulation.reset();
+            simulation.setParallelism(pool);
+            long steps = 0;
+            long start = System.nanoTime();
+            for (int t = 0; t < ticks; t++) {
+                steps += simulation.getAgentCount();
+                simulation.tick();
+            }
+            Result result = new Result(steps, System.nanoTime() - start, simulation.getAgentCount());
+            if (best == null || result.stepsPerSecond() > best.stepsPerSecond()) {
+                best = result;
+            }
+        }
+        simulation.setParallelism(null);
+        return best;
+    }
+
+    private static void print(String label, Result result, Result baseline) {
+        System.out.println(String.format(Locale.ROOT, "%-12s %,14.0f steps/s %9.1f ms %,10d agents %6.2fx",
+                label, result.stepsPerSecond(), result.nanos / 1e6, result.finalAgents,
+                result.stepsPerSecond() / baseline.stepsPerSecond()));
+    }
+
+    /**
+     * Outcome of one measured run.
+     */
+    private static final class Result {
+        private final long steps;
+        private final long nanos;
+        private final int finalAgents;
+
+        Result(long steps, long nanos, int finalAgents) {
+            this.steps = steps;
+            this.nanos = nanos;
+            this.finalAgents = finalAgents;
+        }
+
+        double stepsPerSecond() {
+            return steps * 1e9 / Math.max(1, nanos);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole ticks of a {@link CompactSimulation}: fire spread, removal of burned agents and one
+ * step per agent, from the start of the scenario. The simulation is reset before each
+ * measured run, outside the measurement. Run with {@code -prof gc} to see the allocation
+ * per run, which should not grow with the number of agent steps.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class TickBenchmark {
+    @Param({"10000", "1000000"})
+    int nodes;
+
+    @Param({"4", "8"})
+    int degree;
+
+    @Param({"100"})
+    int ticks;
+
+    private CompactSimulation simulation;
+
+    @Setup
+    public void setUp() {
+        CompactGraph graph = BenchmarkGraphs.ringLattice(nodes, degree, nodes / 2);
+        simulation = new CompactSimulation(graph, 1);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        simulation.reset();
+    }
+
+    @Benchmark
+    public int run() {
+        for (int t = 0; t < ticks; t++) {
+            simulation.tick();
+        }
+        return simulation.getAgentCount();
+    }
+}
@@ -0,0 +1,67 @@
+package fireSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Neighbor selection of one walking agent, the compact counterpart of
+ * {@code MobileAgent.randomWalk}: count the free yellow and blue neighbors, pick one and
+ * claim it. A share of the nodes holds agents that never move, so the walk has to skip
+ * occupied neighbors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalkBenchmark {
+    @Param({"10000", "1000000"})
+    int nodes;
+
+    @Param({"4", "8", "16"})
+    int degree;
+
+    @Param({"RANDOM", "COVERAGE"})
+    CompactGraph.WalkPolicy policy;
+
+    /** Fraction of the nodes holding a stationary agent. */
+    @Param({"0.25"})
+    double crowding;
+
+    private CompactGraph graph;
+    private Random random;
+    private int node;
+
+    @Setup
+    public void setUp() {
+        graph = BenchmarkGraphs.ringLattice(nodes, degree);
+        graph.setWalkPolicy(policy);
+        random = new Random(1);
+        for (int i = 1; i < nodes; i++) {
+            if (random.nextDouble() < crowding) {
+                graph.placeAgent(i, i);
+            }
+        }
+        node = 0;
+        graph.placeAgent(node, 0);
+    }
+
+    @Benchmark
+    public int walk() {
+        node = graph.walk(node, random);
+        return node;
+    }
+}